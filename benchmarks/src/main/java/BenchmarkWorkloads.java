@@ -0,0 +1,208 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Workloads of the plotter exposed through JDK functional interfaces. JMH does not allow benchmarks in the default
+ * package and named packages cannot refer to the default-package classes of the plotter, so the benchmarks in the
+ * benchmarks package look this class up by name once during setup and only call the returned interfaces.
+ */
+public final class BenchmarkWorkloads {
+    private static final int BATCH_SIZE = 1024;
+    private static final int FRAME_WIDTH = 800;
+    private static final int FRAME_HEIGHT = 600;
+
+    private BenchmarkWorkloads() {
+    }
+
+    /**
+     * Random polynomial of the given degree, with coefficients shrinking with the exponent so that it stays finite
+     * over the default view.
+     */
+    public static String polynomialString(int degree, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder();
+        for (int i = degree; i >= 0; i--) {
+            double coefficient = (random.nextDouble() * 2 - 1) / (1 + i);
+            if (i == degree && coefficient == 0) {
+                coefficient = 1;
+            }
+            sb.append(String.format(Locale.ROOT, "%+.6f", coefficient));
+            if (i > 0) {
+                sb.append("x^").append(i);
+            }
+        }
+        return sb.toString();
+    }
+
+    public static DoubleUnaryOperator evaluate(int degree) {
+        PolynomialFunction function = new PolynomialFunction(polynomialString(degree, 1));
+        return t -> function.evaluate(t).y;
+    }
+
+    public static DoubleUnaryOperator evaluateCompensated(int degree) {
+        PolynomialFunction function = new PolynomialFunction(polynomialString(degree, 1));
+        function.setEvaluationMode(EvaluationMode.COMPENSATED);
+        return t -> function.evaluate(t).y;
+    }
+
+    public static DoubleSupplier evaluateBatch(int degree) {
+        PolynomialFunction function = new PolynomialFunction(polynomialString(degree, 1));
+        double[] x = new double[BATCH_SIZE];
+        double[] y = new double[BATCH_SIZE];
+        return () -> {
+            function.evaluateRange(-2, 4.0 / BATCH_SIZE, BATCH_SIZE, x, y);
+            return y[BATCH_SIZE - 1];
+        };
+    }
+
+    /**
+     * The batch workload on the generic Horner loop of Polynomial instead of the compiled evaluator.
+     */
+    public static DoubleSupplier evaluateBatchInterpreted(int degree) {
+        Polynomial polynomial = new PolynomialFunction(polynomialString(degree, 1)).getPolynomial();
+        double[] x = new double[BATCH_SIZE];
+        double[] y = new double[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            x[i] = -2 + i * 4.0 / BATCH_SIZE;
+        }
+        return () -> {
+            polynomial.evaluate(x, y, BATCH_SIZE);
+            return y[BATCH_SIZE - 1];
+        };
+    }
+
+    public static DoubleSupplier findRoots(int degree, double width) {
+        double[] coefficients = new PolynomialFunction(polynomialString(degree, 1)).getCoefficients();
+        return () -> PolynomialRootFinder.findRoots(coefficients, -width / 2, width / 2).size();
+    }
+
+    public static DoubleSupplier extremePoints(int degree, double width) {
+        PolynomialFunction function = new PolynomialFunction(polynomialString(degree, 1));
+        return () -> {
+            function.calcExtremePoints(-width / 2, width / 2);
+            return function.getExtremePoints().size();
+        };
+    }
+
+    public static DoubleSupplier parse(int degree, boolean cached) {
+        String polynomial = polynomialString(degree, 1);
+        if (cached) {
+            return () -> PolynomialParser.parse(polynomial).degree();
+        }
+        return () -> PolynomialParser.parseUncached(polynomial).degree();
+    }
+
+    /**
+     * Product of two random dense polynomials of the given degree, so the degree selects the algorithm.
+     */
+    public static DoubleSupplier multiply(int degree) {
+        Polynomial first = PolynomialParser.parseUncached(polynomialString(degree, 1));
+        Polynomial second = PolynomialParser.parseUncached(polynomialString(degree, 2));
+        return () -> first.multiply(second).degree();
+    }
+
+    /**
+     * (x-1)(x-2)...(x-n) written as factors, parsed and expanded.
+     */
+    public static DoubleSupplier expandProduct(int factors) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= factors; i++) {
+            sb.append("(x-").append(i).append(')');
+        }
+        String product = sb.toString();
+        return () -> PolynomialParser.parseUncached(product).degree();
+    }
+
+    /**
+     * The batch workload on (x-1)(x-2)...(x-n) over [0, n + 1], which is evaluated in factored form.
+     */
+    public static DoubleSupplier evaluateBatchFactored(int factors) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= factors; i++) {
+            sb.append("(x-").append(i).append(')');
+        }
+        PolynomialFunction function = new PolynomialFunction(sb.toString());
+        double[] x = new double[BATCH_SIZE];
+        double[] y = new double[BATCH_SIZE];
+        return () -> {
+            function.evaluateRange(0, (factors + 1.0) / BATCH_SIZE, BATCH_SIZE, x, y);
+            return y[BATCH_SIZE - 1];
+        };
+    }
+
+    public static DoubleSupplier intersections(int degree) {
+        PolynomialFunction first = new PolynomialFunction(polynomialString(degree, 1));
+        PolynomialFunction second = new PolynomialFunction(polynomialString(degree, 2));
+        return () -> {
+            FunctionRegistry registry = new FunctionRegistry();
+            return registry.getIntersections(registry.add(first), registry.add(second)).size();
+        };
+    }
+
+    /**
+     * Opens a saved workspace of analysed cubics and reads the roots of its first function, the others stay unread.
+     */
+    public static DoubleSupplier openWorkspace(int functions) {
+        FunctionRegistry registry = new FunctionRegistry();
+        for (int i = 0; i < functions; i++) {
+            registry.add(new PolynomialFunction(polynomialString(3, i + 1), -10, 10));
+        }
+        Path path;
+        try {
+            path = Files.createTempFile("workspace", ".pvws");
+            path.toFile().deleteOnExit();
+            WorkspaceFile.write(path, new Vector2D(0, 0), 1, registry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return () -> {
+            try {
+                return WorkspaceFile.open(path).functions.get(0).getRoots().size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Paints a full frame with three functions into an off-screen image, like the render thread of GraphPanel
+     * does, but without its caches so every invocation samples all curves again.
+     */
+    public static DoubleSupplier renderFrame(int degree, double zoom) {
+        FunctionRegistry registry = new FunctionRegistry();
+        for (int i = 0; i < 3; i++) {
+            registry.add(new PolynomialFunction(polynomialString(degree, i + 1)));
+        }
+        List<FunctionEntry> entries = registry.getEntries();
+        List<Vector2D> intersections = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            for (int j = i + 1; j < entries.size(); j++) {
+                intersections.addAll(registry.getIntersections(entries.get(i), entries.get(j)));
+            }
+        }
+
+        Viewport viewport = new Viewport(FRAME_WIDTH, FRAME_HEIGHT, new Vector2D(0, 0), 50.0 * zoom);
+        GraphRenderer renderer = new GraphRenderer();
+        BufferedImage image = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        return () -> {
+            Graphics2D g2d = image.createGraphics();
+            try {
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                renderer.drawFrame(g2d, viewport, entries, intersections);
+            } finally {
+                g2d.dispose();
+            }
+            return image.getRGB(FRAME_WIDTH / 2, FRAME_HEIGHT / 2);
+        };
+    }
+}
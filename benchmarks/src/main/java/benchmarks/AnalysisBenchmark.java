@@ -0,0 +1,49 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalysisBenchmark {
+    @Param({"2", "10", "100", "1000"})
+    public int degree;
+
+    @Param({"10", "1000"})
+    public double intervalWidth;
+
+    private DoubleSupplier findRoots;
+    private DoubleSupplier extremePoints;
+    private DoubleSupplier intersections;
+
+    @Setup
+    public void setUp() {
+        findRoots = Workloads.create("findRoots", degree, intervalWidth);
+        extremePoints = Workloads.create("extremePoints", degree, intervalWidth);
+        intersections = Workloads.create("intersections", degree);
+    }
+
+    @Benchmark
+    public double findRoots() {
+        return findRoots.getAsDouble();
+    }
+
+    @Benchmark
+    public double extremePoints() {
+        return extremePoints.getAsDouble();
+    }
+
+    /**
+     * Intersections are solved over the whole real line, so this does not depend on the interval width.
+     */
+    @Benchmark
+    public double intersections() {
+        return intersections.getAsDouble();
+    }
+}
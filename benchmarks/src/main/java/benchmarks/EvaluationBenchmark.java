@@ -0,0 +1,60 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+    @Param({"2", "10", "100", "1000"})
+    public int degree;
+
+    private DoubleUnaryOperator evaluate;
+    private DoubleUnaryOperator evaluateCompensated;
+    private DoubleSupplier evaluateBatch;
+    private DoubleSupplier evaluateBatchInterpreted;
+    private double t = 0.5;
+
+    @Setup
+    public void setUp() {
+        evaluate = Workloads.create("evaluate", degree);
+        evaluateCompensated = Workloads.create("evaluateCompensated", degree);
+        evaluateBatch = Workloads.create("evaluateBatch", degree);
+        evaluateBatchInterpreted = Workloads.create("evaluateBatchInterpreted", degree);
+    }
+
+    @Benchmark
+    public double evaluate() {
+        t = -t;
+        return evaluate.applyAsDouble(t);
+    }
+
+    @Benchmark
+    public double evaluateCompensated() {
+        t = -t;
+        return evaluateCompensated.applyAsDouble(t);
+    }
+
+    /**
+     * 1024 samples through the allocation-free batch API.
+     */
+    @Benchmark
+    public double evaluateBatch() {
+        return evaluateBatch.getAsDouble();
+    }
+
+    /**
+     * The same samples through the generic Horner loop, for comparison with the compiled evaluator.
+     */
+    @Benchmark
+    public double evaluateBatchInterpreted() {
+        return evaluateBatchInterpreted.getAsDouble();
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiplicationBenchmark {
+    // Schoolbook, Karatsuba and FFT territory
+    @Param({"32", "256", "2048"})
+    public int degree;
+
+    private DoubleSupplier multiply;
+    private DoubleSupplier expandProduct;
+    private DoubleSupplier evaluateBatchFactored;
+
+    @Setup
+    public void setUp() {
+        multiply = Workloads.create("multiply", degree);
+        expandProduct = Workloads.create("expandProduct", degree);
+        evaluateBatchFactored = Workloads.create("evaluateBatchFactored", degree);
+    }
+
+    @Benchmark
+    public double multiply() {
+        return multiply.getAsDouble();
+    }
+
+    /**
+     * Parses and expands a product of degree linear factors.
+     */
+    @Benchmark
+    public double expandProduct() {
+        return expandProduct.getAsDouble();
+    }
+
+    /**
+     * 1024 samples of the product of degree linear factors, evaluated in factored form.
+     */
+    @Benchmark
+    public double evaluateBatchFactored() {
+        return evaluateBatchFactored.getAsDouble();
+    }
+}
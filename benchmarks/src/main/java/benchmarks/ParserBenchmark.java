@@ -0,0 +1,36 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"2", "10", "100", "1000"})
+    public int degree;
+
+    private DoubleSupplier parse;
+    private DoubleSupplier parseCached;
+
+    @Setup
+    public void setUp() {
+        parse = Workloads.create("parse", degree, false);
+        parseCached = Workloads.create("parse", degree, true);
+    }
+
+    @Benchmark
+    public double parse() {
+        return parse.getAsDouble();
+    }
+
+    @Benchmark
+    public double parseCached() {
+        return parseCached.getAsDouble();
+    }
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Renders an 800x600 frame with three curves headless into a BufferedImage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    @Param({"2", "10", "100", "1000"})
+    public int degree;
+
+    @Param({"0.5", "1", "10"})
+    public double zoom;
+
+    private DoubleSupplier renderFrame;
+
+    @Setup
+    public void setUp() {
+        renderFrame = Workloads.create("renderFrame", degree, zoom);
+    }
+
+    @Benchmark
+    public double renderFrame() {
+        return renderFrame.getAsDouble();
+    }
+}
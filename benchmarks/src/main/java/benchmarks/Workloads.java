@@ -0,0 +1,29 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Looks up the workloads of the default-package BenchmarkWorkloads class by name.
+ */
+final class Workloads {
+    private Workloads() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T create(String name, Object... arguments) {
+        try {
+            Class<?> workloads = Class.forName("BenchmarkWorkloads");
+            for (Method method : workloads.getMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == arguments.length) {
+                    return (T) method.invoke(null, arguments);
+                }
+            }
+            throw new IllegalArgumentException("Unknown workload: " + name);
+        } catch (ClassNotFoundException | IllegalAccessException e) {
+            throw new IllegalStateException("Benchmark workloads are not on the class path", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Creating workload " + name + " failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkspaceBenchmark {
+    @Param({"100", "1000"})
+    public int functions;
+
+    private DoubleSupplier openWorkspace;
+
+    @Setup
+    public void setUp() {
+        openWorkspace = Workloads.create("openWorkspace", functions);
+    }
+
+    /**
+     * Maps a saved workspace and decodes its functions, but only the analysis of the first one.
+     */
+    @Benchmark
+    public double openWorkspace() {
+        return openWorkspace.getAsDouble();
+    }
+}
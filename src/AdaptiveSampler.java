@@ -0,0 +1,240 @@
+/**
+ * Samples a ParametricFunction into a screen-space polyline.
+ * It starts with one sample every two pixels and then repeatedly halves only the segments whose midpoint lies
+ * further than the flatness tolerance from their chord, so the work is bounded by the pixel width of the view
+ * instead of the zoom level. Only segments that reach into the visible y-range are refined.
+ * If the function can bound its values over a parameter range, ranges that lie entirely above or below the visible
+ * y-range are not sampled at all but collapsed into a single off-screen segment.
+ * Buffers are reused between calls.
+ */
+public class AdaptiveSampler {
+    private static final double FLATNESS_TOLERANCE = 0.25;
+    private static final int INITIAL_PIXELS_PER_SAMPLE = 2;
+    private static final int MAX_REFINEMENT_PASSES = 12;
+    private static final int MAX_SAMPLES_PER_PIXEL = 16;
+    // Keeps off-screen coordinates close enough to the visible range for Java2D to stroke them precisely
+    private static final double SCREEN_LIMIT = 1e6;
+    // Ranges with fewer initial samples are sampled without trying to cull them
+    private static final int MIN_CULL_SAMPLES = 16;
+
+    private double[] t = new double[0];
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private boolean[] refine = new boolean[0];
+    private double[] nextT = new double[0];
+    private double[] nextX = new double[0];
+    private double[] nextY = new double[0];
+    private boolean[] nextRefine = new boolean[0];
+    private double[] midT = new double[0];
+    private double[] midX = new double[0];
+    private double[] midY = new double[0];
+    private int count;
+    private double visibleTop;
+    private double visibleBottom;
+    private long evaluationCount = 0;
+    private final double[] bounds = new double[2];
+
+    /**
+     * Samples the function for t in [minT, maxT] and returns the number of points, which are then available
+     * in screen coordinates through {@link #getX()} and {@link #getY()}. Screen y-coordinates between
+     * visibleTop and visibleBottom are considered visible.
+     */
+    public int sample(ParametricFunction function, double minT, double maxT, int width,
+                      double visibleTop, double visibleBottom, double zeroX, double zeroY, double scale) {
+        this.visibleTop = visibleTop;
+        this.visibleBottom = visibleBottom;
+        function.setResolution(scale);
+        int initialSamples = Math.max(2, width / INITIAL_PIXELS_PER_SAMPLE + 1);
+        int maxSamples = Math.max(initialSamples, width * MAX_SAMPLES_PER_PIXEL);
+        ensureCapacity(initialSamples);
+
+        count = 0;
+        if (initialSamples > MIN_CULL_SAMPLES && function.boundY(minT, maxT, bounds)) {
+            collectInitialSamples(function, minT, maxT, initialSamples, 0, initialSamples - 1, zeroY, scale);
+            t[count++] = maxT;
+        }
+        if (count == 0 || count == initialSamples) {
+            count = initialSamples;
+            function.evaluateRange(minT, (maxT - minT) / (initialSamples - 1), initialSamples, x, y);
+            for (int i = 0; i < initialSamples; i++) {
+                t[i] = minT + i * (maxT - minT) / (initialSamples - 1);
+            }
+        } else {
+            function.evaluate(t, x, y, count);
+        }
+        evaluationCount += count;
+        for (int i = 0; i < count; i++) {
+            x[i] = zeroX + x[i] * scale;
+            y[i] = toScreen(zeroY - y[i] * scale);
+        }
+        for (int i = 0; i < count - 1; i++) {
+            refine[i] = isVisible(i);
+        }
+
+        for (int pass = 0; pass < MAX_REFINEMENT_PASSES; pass++) {
+            int midpoints = collectMidpoints();
+            if (midpoints == 0 || count + midpoints > maxSamples) {
+                break;
+            }
+            function.evaluate(midT, midX, midY, midpoints);
+            evaluationCount += midpoints;
+            insertMidpoints(midpoints, zeroX, zeroY, scale);
+        }
+        return count;
+    }
+
+    /**
+     * Collects the parameters of the initial samples from up to, excluding, the sample with index to. Ranges whose
+     * value bounds lie entirely off the screen only keep their first sample, larger ranges are split in halves.
+     */
+    private void collectInitialSamples(ParametricFunction function, double minT, double maxT, int samples,
+                                       int from, int to, double zeroY, double scale) {
+        double fromT = minT + from * (maxT - minT) / (samples - 1);
+        if (to - from < MIN_CULL_SAMPLES) {
+            for (int i = from; i < to; i++) {
+                t[count++] = minT + i * (maxT - minT) / (samples - 1);
+            }
+            return;
+        }
+        double toT = minT + to * (maxT - minT) / (samples - 1);
+        if (function.boundY(fromT, toT, bounds)) {
+            double top = zeroY - bounds[1] * scale;
+            double bottom = zeroY - bounds[0] * scale;
+            // One pixel of margin absorbs rounding errors of the bounds
+            if (bottom < visibleTop - 1 || top > visibleBottom + 1) {
+                t[count++] = fromT;
+                return;
+            }
+        }
+        int mid = (from + to) >>> 1;
+        collectInitialSamples(function, minT, maxT, samples, from, mid, zeroY, scale);
+        collectInitialSamples(function, minT, maxT, samples, mid, to, zeroY, scale);
+    }
+
+    /**
+     * Returns the number of function evaluations of all calls so far.
+     */
+    public long getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    public double[] getT() {
+        return t;
+    }
+
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    private int collectMidpoints() {
+        int midpoints = 0;
+        for (int i = 0; i < count - 1; i++) {
+            if (refine[i]) {
+                midpoints++;
+            }
+        }
+        if (midT.length < midpoints) {
+            midT = new double[midpoints];
+            midX = new double[midpoints];
+            midY = new double[midpoints];
+        }
+
+        int k = 0;
+        for (int i = 0; i < count - 1; i++) {
+            if (refine[i]) {
+                midT[k++] = (t[i] + t[i + 1]) / 2;
+            }
+        }
+        return midpoints;
+    }
+
+    private void insertMidpoints(int midpoints, double zeroX, double zeroY, double scale) {
+        int newCount = count + midpoints;
+        if (nextT.length < newCount) {
+            nextT = new double[newCount];
+            nextX = new double[newCount];
+            nextY = new double[newCount];
+            nextRefine = new boolean[newCount];
+        }
+
+        int k = 0;
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            nextT[n] = t[i];
+            nextX[n] = x[i];
+            nextY[n] = y[i];
+            nextRefine[n] = false;
+            n++;
+
+            if (i < count - 1 && refine[i]) {
+                double mx = zeroX + midX[k] * scale;
+                double my = toScreen(zeroY - midY[k] * scale);
+                boolean curved = deviation(x[i], y[i], x[i + 1], y[i + 1], mx, my) > FLATNESS_TOLERANCE
+                        && midT[k] > t[i] && midT[k] < t[i + 1];
+                nextRefine[n - 1] = curved;
+                nextT[n] = midT[k];
+                nextX[n] = mx;
+                nextY[n] = my;
+                nextRefine[n] = curved;
+                n++;
+                k++;
+            }
+        }
+
+        swapBuffers();
+        count = newCount;
+        for (int i = 0; i < count - 1; i++) {
+            refine[i] = refine[i] && isVisible(i);
+        }
+    }
+
+    private boolean isVisible(int segment) {
+        // Segments entirely above or below the view do not need any more detail
+        double y0 = y[segment];
+        double y1 = y[segment + 1];
+        return !(y0 < visibleTop && y1 < visibleTop) && !(y0 > visibleBottom && y1 > visibleBottom)
+                && !Double.isNaN(y0) && !Double.isNaN(y1);
+    }
+
+    private static double deviation(double x0, double y0, double x1, double y1, double px, double py) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double length = Math.hypot(dx, dy);
+        if (length == 0) {
+            return Math.hypot(px - x0, py - y0);
+        }
+        return Math.abs(dx * (py - y0) - dy * (px - x0)) / length;
+    }
+
+    private double toScreen(double value) {
+        return Math.max(visibleTop - SCREEN_LIMIT, Math.min(visibleBottom + SCREEN_LIMIT, value));
+    }
+
+    private void swapBuffers() {
+        double[] tmpT = t;
+        double[] tmpX = x;
+        double[] tmpY = y;
+        boolean[] tmpRefine = refine;
+        t = nextT;
+        x = nextX;
+        y = nextY;
+        refine = nextRefine;
+        nextT = tmpT;
+        nextX = tmpX;
+        nextY = tmpY;
+        nextRefine = tmpRefine;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (t.length < capacity) {
+            t = new double[capacity];
+            x = new double[capacity];
+            y = new double[capacity];
+            refine = new boolean[capacity];
+        }
+    }
+}
@@ -0,0 +1,214 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caching wrapper that evaluates an expensive ParametricFunction from piecewise Chebyshev interpolants.
+ * The parameter axis is split into dyadic pieces, a piece on level L spans [k / 2^L, (k + 1) / 2^L). Each piece
+ * interpolates x(t) and y(t) at {@value #NODES} Chebyshev points and estimates its error from the trailing
+ * coefficients. Evaluation starts on the level whose pieces span about {@value #PIECE_PIXELS} pixels at the
+ * current resolution and descends to finer levels until a piece meets the tolerance, so zooming in refines only
+ * where it is needed. Pieces are kept in an LRU cache bounded by the memory budget. FunctionRegistry wraps every
+ * function that is not a polynomial in one.
+ */
+public class ChebyshevApproximation implements ParametricFunction {
+    private static final int NODES = 16;
+    private static final int PIECE_PIXELS = 256;
+    // Deepest refinement below the start level, pieces there are used even if they miss the tolerance
+    private static final int MAX_REFINEMENT_LEVELS = 24;
+    // Coefficients, bounds and map entry of a piece
+    private static final int PIECE_BYTES = 2 * NODES * Double.BYTES + 128;
+    private static final double[] NODE_COSINES = new double[NODES];
+    private static final double[][] BASIS = new double[NODES][NODES];
+
+    static {
+        for (int j = 0; j < NODES; j++) {
+            NODE_COSINES[j] = Math.cos(Math.PI * (j + 0.5) / NODES);
+            for (int k = 0; k < NODES; k++) {
+                BASIS[k][j] = Math.cos(Math.PI * k * (j + 0.5) / NODES);
+            }
+        }
+    }
+
+    private static class Piece {
+        final double start;
+        final double end;
+        final double[] x;
+        final double[] y;
+        final double error;
+
+        Piece(double start, double end, double[] x, double[] y, double error) {
+            this.start = start;
+            this.end = end;
+            this.x = x;
+            this.y = y;
+            this.error = error;
+        }
+    }
+
+    private final ParametricFunction function;
+    private final double pixelTolerance;
+    private final Map<Long, Piece> pieces;
+    private double scale = 1.0;
+    private double tolerance;
+    private int startLevel;
+    // Most pieces are hit by runs of neighbouring samples
+    private Piece lastPiece = null;
+    private long evaluationCount = 0;
+
+    /**
+     * @param pixelTolerance allowed deviation of the interpolant in pixels at the current resolution
+     * @param memoryBudget   approximate number of bytes the cached pieces may occupy
+     */
+    public ChebyshevApproximation(ParametricFunction function, double pixelTolerance, long memoryBudget) {
+        this.function = function;
+        this.pixelTolerance = pixelTolerance;
+        int maxPieces = (int) Math.max(16, Math.min(Integer.MAX_VALUE, memoryBudget / PIECE_BYTES));
+        this.pieces = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Piece> eldest) {
+                return size() > maxPieces;
+            }
+        };
+        setResolution(1.0);
+    }
+
+    @Override
+    public synchronized void setResolution(double scale) {
+        if (!(scale > 0) || scale == this.scale) {
+            return;
+        }
+        this.scale = scale;
+        this.tolerance = pixelTolerance / scale;
+        this.startLevel = (int) Math.ceil(Math.log(scale / PIECE_PIXELS) / Math.log(2));
+        lastPiece = null;
+    }
+
+    @Override
+    public synchronized Vector2D evaluate(double t) {
+        Piece piece = pieceAt(t);
+        double u = (2 * t - piece.start - piece.end) / (piece.end - piece.start);
+        return new Vector2D(clenshaw(piece.x, u), clenshaw(piece.y, u));
+    }
+
+    @Override
+    public synchronized void evaluate(double[] t, double[] x, double[] y, int count) {
+        for (int i = 0; i < count; i++) {
+            Piece piece = pieceAt(t[i]);
+            double u = (2 * t[i] - piece.start - piece.end) / (piece.end - piece.start);
+            x[i] = clenshaw(piece.x, u);
+            y[i] = clenshaw(piece.y, u);
+        }
+    }
+
+    @Override
+    public synchronized void evaluateRange(double start, double step, int count, double[] x, double[] y) {
+        for (int i = 0; i < count; i++) {
+            double t = start + i * step;
+            Piece piece = pieceAt(t);
+            double u = (2 * t - piece.start - piece.end) / (piece.end - piece.start);
+            x[i] = clenshaw(piece.x, u);
+            y[i] = clenshaw(piece.y, u);
+        }
+    }
+
+    /**
+     * Bounds y with the bounds of the wrapped function, widened by the tolerance of the interpolants. Bounds taken
+     * from the coefficients would rest on the error estimates of the pieces, which are no bounds, and could cull
+     * visible parts of the curve.
+     */
+    @Override
+    public boolean boundY(double minT, double maxT, double[] bounds) {
+        if (!function.boundY(minT, maxT, bounds)) {
+            return false;
+        }
+        double tolerance;
+        synchronized (this) {
+            tolerance = this.tolerance;
+        }
+        bounds[0] -= tolerance;
+        bounds[1] += tolerance;
+        return true;
+    }
+
+    /**
+     * Returns the number of evaluations of the wrapped function so far.
+     */
+    public synchronized long getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    public synchronized int getPieceCount() {
+        return pieces.size();
+    }
+
+    private Piece pieceAt(double t) {
+        Piece piece = lastPiece;
+        if (piece != null && t >= piece.start && t < piece.end && piece.error <= tolerance) {
+            return piece;
+        }
+        for (int level = startLevel; ; level++) {
+            piece = piece(level, (long) Math.floor(Math.scalb(t, level)));
+            if (piece.error <= tolerance || level == startLevel + MAX_REFINEMENT_LEVELS) {
+                lastPiece = piece;
+                return piece;
+            }
+        }
+    }
+
+    private Piece piece(int level, long index) {
+        // 10 bits for the level, offset to keep it positive, and the index in the remaining bits
+        long key = (index << 10) | ((level + 512) & 0x3FF);
+        Piece piece = pieces.get(key);
+        if (piece == null) {
+            piece = interpolate(Math.scalb((double) index, -level), Math.scalb((double) (index + 1), -level));
+            pieces.put(key, piece);
+        }
+        return piece;
+    }
+
+    private Piece interpolate(double start, double end) {
+        double[] t = new double[NODES];
+        double[] xValues = new double[NODES];
+        double[] yValues = new double[NODES];
+        for (int j = 0; j < NODES; j++) {
+            t[j] = (start + end) / 2 + (end - start) / 2 * NODE_COSINES[j];
+        }
+        function.evaluate(t, xValues, yValues, NODES);
+        evaluationCount += NODES;
+
+        double[] x = coefficients(xValues);
+        double[] y = coefficients(yValues);
+        // The trailing coefficients of a converged series estimate the error of the truncation
+        double error = 2 * (Math.abs(x[NODES - 1]) + Math.abs(x[NODES - 2]) + Math.abs(y[NODES - 1]) + Math.abs(y[NODES - 2]));
+        if (Double.isNaN(error)) {
+            error = Double.POSITIVE_INFINITY;
+        }
+        return new Piece(start, end, x, y, error);
+    }
+
+    /**
+     * Chebyshev coefficients of the interpolant through the values at the Chebyshev points of the first kind.
+     */
+    private static double[] coefficients(double[] values) {
+        double[] result = new double[NODES];
+        for (int k = 0; k < NODES; k++) {
+            double sum = 0;
+            for (int j = 0; j < NODES; j++) {
+                sum += values[j] * BASIS[k][j];
+            }
+            result[k] = (k == 0 ? 1.0 : 2.0) * sum / NODES;
+        }
+        return result;
+    }
+
+    private static double clenshaw(double[] coefficients, double u) {
+        double b1 = 0;
+        double b2 = 0;
+        for (int k = NODES - 1; k >= 1; k--) {
+            double b0 = 2 * u * b1 - b2 + coefficients[k];
+            b2 = b1;
+            b1 = b0;
+        }
+        return u * b1 - b2 + coefficients[0];
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Counts of samples in a fixed grid of bins over the bounding box of a data set. Drawing the grid instead of the
+ * samples keeps the cost of a frame bounded by the number of bins and pixels, however many samples there are.
+ * Grids of separate chunks over the same box can be merged by adding their counts.
+ */
+public class DensityGrid {
+    public static final int DEFAULT_BINS = 512;
+
+    public final double minX;
+    public final double maxX;
+    public final double minY;
+    public final double maxY;
+    public final int columns;
+    public final int rows;
+    // Row-major with row 0 at minY
+    private final int[] counts;
+
+    public DensityGrid(double minX, double maxX, double minY, double maxY, int columns, int rows) {
+        // A box without extent would put all samples into a single bin of zero size
+        if (!(maxX > minX)) {
+            minX -= 0.5;
+            maxX += 0.5;
+        }
+        if (!(maxY > minY)) {
+            minY -= 0.5;
+            maxY += 0.5;
+        }
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.columns = columns;
+        this.rows = rows;
+        this.counts = new int[columns * rows];
+    }
+
+    public void add(double x, double y) {
+        int column = (int) ((x - minX) / (maxX - minX) * columns);
+        int row = (int) ((y - minY) / (maxY - minY) * rows);
+        if (column >= 0 && column <= columns && row >= 0 && row <= rows) {
+            // The maximum lies on the upper edge of the last bin
+            int index = Math.min(row, rows - 1) * columns + Math.min(column, columns - 1);
+            if (counts[index] != Integer.MAX_VALUE) {
+                counts[index]++;
+            }
+        }
+    }
+
+    /**
+     * Adds the counts of another grid over the same box to this one and returns this grid.
+     */
+    public DensityGrid merge(DensityGrid other) {
+        if (other.columns != columns || other.rows != rows || other.minX != minX || other.maxX != maxX
+                || other.minY != minY || other.maxY != maxY) {
+            throw new IllegalArgumentException("Grids over different boxes cannot be merged");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = (int) Math.min(Integer.MAX_VALUE, (long) counts[i] + other.counts[i]);
+        }
+        return this;
+    }
+
+    public int count(int column, int row) {
+        return counts[row * columns + column];
+    }
+
+    public double binWidth() {
+        return (maxX - minX) / columns;
+    }
+
+    public double binHeight() {
+        return (maxY - minY) / rows;
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * How polynomials are evaluated. STANDARD uses the plain Horner scheme. COMPENSATED uses the compensated Horner
+ * scheme, which is about as accurate as plain Horner in twice the working precision, and decides signs that its
+ * error bound cannot guarantee with exact arithmetic, so root isolation gets reliable signs near clustered roots.
+ */
+public enum EvaluationMode {
+    STANDARD,
+    COMPENSATED
+}
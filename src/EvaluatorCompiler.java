@@ -0,0 +1,348 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Compiles a polynomial into a hidden class whose evaluate methods run the Horner scheme fully unrolled, with the
+ * coefficients as constants and the additions of zero coefficients left out. Every polynomial gets its own class,
+ * so the loop of the batch method only ever sees one kernel and the JIT can fold the constants into it.
+ * Compiled evaluators are cached per polynomial and their classes are unloaded once they are no longer used.
+ * Polynomials above {@value #MAX_DEGREE}, whose unrolled code would get too large to be inlined and compiled well,
+ * and any failure to define the class fall back to the polynomial itself. Compilation is only turned off for good
+ * when the runtime does not support defining classes.
+ */
+public final class EvaluatorCompiler {
+    private static final int MAX_DEGREE = 64;
+    private static final int CACHE_SIZE = 256;
+    private static final Map<Polynomial, PolynomialEvaluator> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Polynomial, PolynomialEvaluator> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+    private static volatile boolean available = true;
+
+    // Class file constants, version 49 does not need stack map frames for the loop
+    private static final int CLASS_VERSION = 49;
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ILOAD = 0x15;
+    private static final int ILOAD_3 = 0x1d;
+    private static final int ISTORE = 0x36;
+    private static final int DLOAD = 0x18;
+    private static final int DSTORE = 0x39;
+    private static final int DALOAD = 0x31;
+    private static final int DASTORE = 0x52;
+    private static final int ICONST_0 = 0x03;
+    private static final int DCONST_0 = 0x0e;
+    private static final int LDC2_W = 0x14;
+    private static final int DADD = 0x63;
+    private static final int DMUL = 0x6b;
+    private static final int IINC = 0x84;
+    private static final int IF_ICMPGE = 0xa2;
+    private static final int GOTO = 0xa7;
+    private static final int DRETURN = 0xaf;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+
+    private EvaluatorCompiler() {
+    }
+
+    /**
+     * Returns the specialized evaluator of the polynomial, or the polynomial itself if it cannot be compiled.
+     */
+    public static PolynomialEvaluator compile(Polynomial polynomial) {
+        if (!available || polynomial.degree() > MAX_DEGREE) {
+            return polynomial;
+        }
+        PolynomialEvaluator evaluator = CACHE.get(polynomial);
+        if (evaluator == null) {
+            evaluator = define(polynomial);
+            CACHE.put(polynomial, evaluator);
+        }
+        return evaluator;
+    }
+
+    private static PolynomialEvaluator define(Polynomial polynomial) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(generate(polynomial.toDenseArray()), true);
+            return (PolynomialEvaluator) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (UnsupportedOperationException | IllegalAccessException | SecurityException e) {
+            // Without class definition at runtime, for example in a restricted environment, nothing is compiled
+            available = false;
+            System.err.println("Polynomial evaluators are not compiled: " + e);
+            return polynomial;
+        } catch (Throwable e) {
+            // Any other failure, like a class the verifier rejects or a lack of memory, only concerns this polynomial
+            System.err.println("Polynomial evaluator of degree " + polynomial.degree() + " is not compiled: " + e);
+            return polynomial;
+        }
+    }
+
+    /**
+     * Class file of
+     * <pre>
+     * public final class EvaluatorCompiler$Kernel implements PolynomialEvaluator {
+     *     public double evaluate(double x) { return horner(x); }
+     *     public void evaluate(double[] x, double[] y, int count) {
+     *         for (int i = 0; i < count; i++) { y[i] = c_n; }
+     *         for (int i = 0; i < count; i++) { double xi = x[i]; y[i] = y[i] * xi * xi + c_n-2; } // c_n-1 == 0
+     *         ...
+     *     }
+     * }
+     * </pre>
+     */
+    static byte[] generate(double[] coefficients) {
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classRef("EvaluatorCompiler$Kernel");
+        int objectClass = pool.classRef("java/lang/Object");
+        int evaluatorClass = pool.classRef("PolynomialEvaluator");
+        int objectInit = pool.methodRef(objectClass, "<init>", "()V");
+        int initName = pool.utf8("<init>");
+        int initType = pool.utf8("()V");
+        int evaluateName = pool.utf8("evaluate");
+        int scalarType = pool.utf8("(D)D");
+        int batchType = pool.utf8("([D[DI)V");
+        int codeName = pool.utf8("Code");
+
+        ByteArrayOutputStream init = new ByteArrayOutputStream();
+        init.write(ALOAD_0);
+        init.write(INVOKESPECIAL);
+        writeShort(init, objectInit);
+        init.write(RETURN);
+
+        // Locals: this, x
+        ByteArrayOutputStream scalar = new ByteArrayOutputStream();
+        writeHorner(scalar, pool, coefficients, 1);
+        scalar.write(DRETURN);
+
+        // Locals: this, x, y, count, i, xi. One pass over the samples per non-zero term, like Polynomial.evaluate,
+        // so the passes vectorize, but with constant coefficients and the zero terms merged into the next pass
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        int exponent = coefficients.length - 1;
+        double leading = coefficients[exponent];
+        writeLoop(batch, body -> {
+            body.write(ALOAD_2);
+            body.write(ILOAD);
+            body.write(4);
+            writeConstant(body, pool, leading);
+            body.write(DASTORE);
+        });
+        while (exponent > 0) {
+            int next = exponent - 1;
+            while (next > 0 && coefficients[next] == 0) {
+                next--;
+            }
+            int multiplications = exponent - next;
+            double coefficient = coefficients[next];
+            writeLoop(batch, body -> {
+                body.write(ALOAD_1);
+                body.write(ILOAD);
+                body.write(4);
+                body.write(DALOAD);
+                body.write(DSTORE);
+                body.write(5);
+                body.write(ALOAD_2);
+                body.write(ILOAD);
+                body.write(4);
+                body.write(ALOAD_2);
+                body.write(ILOAD);
+                body.write(4);
+                body.write(DALOAD);
+                for (int k = 0; k < multiplications; k++) {
+                    body.write(DLOAD);
+                    body.write(5);
+                    body.write(DMUL);
+                }
+                if (coefficient != 0) {
+                    writeConstant(body, pool, coefficient);
+                    body.write(DADD);
+                }
+                body.write(DASTORE);
+            });
+            exponent = next;
+        }
+        batch.write(RETURN);
+        byte[] batchCode = batch.toByteArray();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(objectClass);
+            out.writeShort(1);
+            out.writeShort(evaluatorClass);
+            out.writeShort(0);
+            out.writeShort(3);
+            writeMethod(out, initName, initType, codeName, 1, 1, init.toByteArray());
+            writeMethod(out, evaluateName, scalarType, codeName, 4, 3, scalar.toByteArray());
+            writeMethod(out, evaluateName, batchType, codeName, 6, 7, batchCode);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes {@code for (int i = 0; i < count; i++) { body }} with i in local variable 4 and count in 3.
+     */
+    private static void writeLoop(ByteArrayOutputStream code, Consumer<ByteArrayOutputStream> body) {
+        code.write(ICONST_0);
+        code.write(ISTORE);
+        code.write(4);
+        int loop = code.size();
+        code.write(ILOAD);
+        code.write(4);
+        code.write(ILOAD_3);
+        ByteArrayOutputStream inner = new ByteArrayOutputStream();
+        body.accept(inner);
+        inner.write(IINC);
+        inner.write(4);
+        inner.write(1);
+        // The exit branch skips itself, the body and the backward jump
+        code.write(IF_ICMPGE);
+        writeShort(code, 3 + inner.size() + 3);
+        code.writeBytes(inner.toByteArray());
+        int backwardJump = code.size();
+        code.write(GOTO);
+        writeShort(code, loop - backwardJump);
+    }
+
+    /**
+     * Pushes the value of the polynomial at the double in the local variable slot.
+     */
+    private static void writeHorner(ByteArrayOutputStream code, ConstantPool pool, double[] coefficients, int slot) {
+        int degree = coefficients.length - 1;
+        writeConstant(code, pool, coefficients[degree]);
+        for (int i = degree - 1; i >= 0; i--) {
+            code.write(DLOAD);
+            code.write(slot);
+            code.write(DMUL);
+            if (coefficients[i] != 0) {
+                writeConstant(code, pool, coefficients[i]);
+                code.write(DADD);
+            }
+        }
+    }
+
+    private static void writeConstant(ByteArrayOutputStream code, ConstantPool pool, double value) {
+        if (Double.doubleToRawLongBits(value) == 0) {
+            code.write(DCONST_0);
+        } else {
+            code.write(LDC2_W);
+            writeShort(code, pool.doubleConstant(value));
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeName,
+                                    int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeName);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value >> 8);
+        out.write(value);
+    }
+
+    private static class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<Object, Integer> indices = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            return indices.computeIfAbsent(value, key -> add(1, () -> {
+                out.writeByte(CONSTANT_UTF8);
+                out.writeUTF(value);
+            }));
+        }
+
+        int classRef(String name) {
+            int nameIndex = utf8(name);
+            return indices.computeIfAbsent("class " + name, key -> add(1, () -> {
+                out.writeByte(CONSTANT_CLASS);
+                out.writeShort(nameIndex);
+            }));
+        }
+
+        int methodRef(int owner, String name, String descriptor) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = add(1, () -> {
+                out.writeByte(CONSTANT_NAME_AND_TYPE);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+            return add(1, () -> {
+                out.writeByte(CONSTANT_METHODREF);
+                out.writeShort(owner);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        int doubleConstant(double value) {
+            // Keyed by the bits, so 0.0 and -0.0 or different NaNs stay distinct
+            return indices.computeIfAbsent(Double.doubleToRawLongBits(value), key -> add(2, () -> {
+                out.writeByte(CONSTANT_DOUBLE);
+                out.writeDouble(value);
+            }));
+        }
+
+        private interface Entry {
+            void write() throws IOException;
+        }
+
+        /**
+         * Writes an entry and returns its index. Doubles take two slots of the pool.
+         */
+        private int add(int slots, Entry entry) {
+            try {
+                entry.write();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            int index = count;
+            count += slots;
+            return index;
+        }
+
+        void writeTo(DataOutputStream classFile) throws IOException {
+            out.flush();
+            classFile.writeShort(count);
+            bytes.writeTo(classFile);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+public class ExtremePoint {
+    public enum Type {
+        MINIMUM,
+        MAXIMUM,
+        INFLECTION
+    }
+
+    public final double x;
+    public final double y;
+    public final Type type;
+
+    public ExtremePoint(double x, double y, Type type) {
+        this.x = x;
+        this.y = y;
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case MINIMUM -> String.format("%.2f (min)", x);
+            case MAXIMUM -> String.format("%.2f (max)", x);
+            case INFLECTION -> String.format("%.2f (inflection)", x);
+        };
+    }
+}
@@ -0,0 +1,24 @@
+import java.util.List;
+
+public class FunctionAnalysis {
+    public final List<PolynomialRoot> roots;
+    public final List<ExtremePoint> extremePoints;
+    // Why the roots and extreme points could not be determined, null if they were
+    public final String unavailableReason;
+
+    public FunctionAnalysis(List<PolynomialRoot> roots, List<ExtremePoint> extremePoints) {
+        this.roots = roots;
+        this.extremePoints = extremePoints;
+        this.unavailableReason = null;
+    }
+
+    private FunctionAnalysis(String unavailableReason) {
+        this.roots = List.of();
+        this.extremePoints = List.of();
+        this.unavailableReason = unavailableReason;
+    }
+
+    public static FunctionAnalysis unavailable(String reason) {
+        return new FunctionAnalysis(reason);
+    }
+}
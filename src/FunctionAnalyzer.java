@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Analyses newly added polynomials on a fork/join pool: roots and critical points are searched in parallel
+ * sub-intervals and the intersections with all existing functions are computed as one task per pair. The
+ * factorization that the root searches start from is prepared once per polynomial and shared by its sub-intervals.
+ * Functions entered in factored form are analysed on their expression instead, see PolynomialExpression#findRoots,
+ * with the roots and the extreme points searched in parallel.
+ */
+public class FunctionAnalyzer {
+    // Below this degree splitting the interval costs more than the root search itself
+    private static final int PARALLEL_DEGREE = 16;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    public FunctionAnalyzer(ForkJoinPool pool) {
+        this.pool = pool;
+        this.splitDepth = 32 - Integer.numberOfLeadingZeros(Math.max(1, pool.getParallelism() - 1));
+    }
+
+    /**
+     * Computes roots and extreme points over [start, end] and fills the intersection cache of the registry for
+     * every pair of the entry with one of the others. The future completes on a pool thread.
+     */
+    public CompletableFuture<FunctionAnalysis> analyze(FunctionEntry entry, PolynomialFunction polynomial, double start,
+                                                       double end, List<FunctionEntry> others, FunctionRegistry registry) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<ForkJoinTask<List<Vector2D>>> intersectionTasks = new ArrayList<>();
+            for (FunctionEntry other : others) {
+                if (other != entry) {
+                    intersectionTasks.add(ForkJoinTask.adapt(() -> registry.getIntersections(entry, other)).fork());
+                }
+            }
+            FunctionAnalysis analysis = polynomial.getExpression().isFactored()
+                    ? analyzeExpression(polynomial, start, end) : analyzePolynomial(polynomial, start, end);
+            intersectionTasks.forEach(ForkJoinTask::join);
+            return analysis;
+        }, pool);
+    }
+
+    private static FunctionAnalysis analyzeExpression(PolynomialFunction polynomial, double start, double end) {
+        PolynomialExpression expression = polynomial.getExpression();
+        EvaluationMode mode = polynomial.getEvaluationMode();
+        ForkJoinTask<List<ExtremePoint>> extremePointTask =
+                ForkJoinTask.adapt(() -> expression.findExtremePoints(start, end, mode)).fork();
+        try {
+            List<PolynomialRoot> roots = expression.findRoots(start, end, mode);
+            return new FunctionAnalysis(roots, extremePointTask.join());
+        } catch (ArithmeticException e) {
+            extremePointTask.quietlyJoin();
+            return FunctionAnalysis.unavailable(e.getMessage());
+        }
+    }
+
+    private FunctionAnalysis analyzePolynomial(PolynomialFunction polynomial, double start, double end) {
+        Polynomial function = polynomial.getPolynomial();
+        int depth = function.degree() >= PARALLEL_DEGREE ? splitDepth : 0;
+        EvaluationMode mode = polynomial.getEvaluationMode();
+
+        ForkJoinTask<PolynomialRootFinder.Factorization> rootFactorization =
+                ForkJoinTask.adapt(() -> PolynomialRootFinder.factor(function, mode)).fork();
+        ForkJoinTask<PolynomialRootFinder.Factorization> criticalPointFactorization =
+                ForkJoinTask.adapt(() -> PolynomialRootFinder.factor(function.derivative(), mode)).fork();
+
+        PolynomialRootFinder.Factorization rootFactors = rootFactorization.join();
+        PolynomialRootFinder.Factorization criticalPointFactors = criticalPointFactorization.join();
+        String unavailableReason = rootFactors.unavailableReason() != null
+                ? rootFactors.unavailableReason() : criticalPointFactors.unavailableReason();
+        if (unavailableReason != null) {
+            return FunctionAnalysis.unavailable(unavailableReason);
+        }
+
+        RootTask rootTask = new RootTask(rootFactors, start, end, true, depth);
+        rootTask.fork();
+        List<PolynomialRoot> criticalPoints = new RootTask(criticalPointFactors, start, end, true, depth).invoke();
+        List<ExtremePoint> extremePoints = PolynomialFunction.classifyCriticalPoints(function, criticalPoints, mode);
+        return new FunctionAnalysis(rootTask.join(), extremePoints);
+    }
+
+    /**
+     * Finds the roots in [start, end] by halving the interval depth times. Only the first sub-interval includes
+     * its start, so a root on a split point is reported once.
+     */
+    private static class RootTask extends RecursiveTask<List<PolynomialRoot>> {
+        private final PolynomialRootFinder.Factorization factorization;
+        private final double start;
+        private final double end;
+        private final boolean includeStart;
+        private final int depth;
+
+        RootTask(PolynomialRootFinder.Factorization factorization, double start, double end, boolean includeStart, int depth) {
+            this.factorization = factorization;
+            this.start = start;
+            this.end = end;
+            this.includeStart = includeStart;
+            this.depth = depth;
+        }
+
+        @Override
+        protected List<PolynomialRoot> compute() {
+            if (depth == 0) {
+                List<PolynomialRoot> roots = factorization.findRoots(start, end);
+                if (!includeStart) {
+                    roots.removeIf(root -> root.x == start);
+                }
+                return roots;
+            }
+
+            double middle = start + (end - start) / 2;
+            RootTask left = new RootTask(factorization, start, middle, includeStart, depth - 1);
+            RootTask right = new RootTask(factorization, middle, end, false, depth - 1);
+            left.fork();
+            List<PolynomialRoot> rightRoots = right.compute();
+            List<PolynomialRoot> roots = new ArrayList<>(left.join());
+            roots.addAll(rightRoots);
+            return roots;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+import java.awt.*;
+
+/**
+ * A function plotted in a GraphPanel together with its stable id and its colour.
+ */
+public class FunctionEntry {
+    public final int id;
+    public final ParametricFunction function;
+    public final Color colour;
+
+    public FunctionEntry(int id, ParametricFunction function, Color colour) {
+        this.id = id;
+        this.function = function;
+        this.colour = colour;
+    }
+
+    public String getName() {
+        return "f" + id;
+    }
+}
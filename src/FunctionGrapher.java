@@ -1,14 +1,16 @@
 import javax.swing.*;
+import java.awt.*;
 
 public class FunctionGrapher {
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
             JFrame frame = new JFrame("Polynomial Plotter");
-            frame.setSize(800, 600);
+            frame.setSize(1100, 600);
             frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
             GraphPanel graphPanel = new GraphPanel();
-            frame.add(graphPanel);
+            frame.add(graphPanel, BorderLayout.CENTER);
+            frame.add(new FunctionListPanel(graphPanel.getRegistry()), BorderLayout.EAST);
 
             frame.setVisible(true);
         });
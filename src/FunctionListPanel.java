@@ -0,0 +1,96 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Scrollable list with the function string, roots and extreme points of every function in a registry.
+ */
+public class FunctionListPanel extends JScrollPane {
+    // Longer lines are cut off
+    private static final int CELL_WIDTH = 600;
+    private final DefaultListModel<FunctionEntry> model = new DefaultListModel<>();
+
+    public FunctionListPanel(FunctionRegistry registry) {
+        JList<FunctionEntry> list = new JList<>(model);
+        list.setCellRenderer(new FunctionCellRenderer());
+        // With a fixed cell size the list only renders the visible cells, so the analysis of functions opened from a
+        // workspace is only read for the rows that are scrolled into view
+        PolynomialFunction prototype = new PolynomialFunction(Polynomial.ONE);
+        prototype.setAnalysis(new FunctionAnalysis(List.of(), List.of()));
+        list.setPrototypeCellValue(new FunctionEntry(0, prototype, Color.WHITE));
+        list.setFixedCellWidth(CELL_WIDTH);
+        list.setBackground(GraphRenderer.BACKGROUND_COLOR);
+        setViewportView(list);
+        setPreferredSize(new Dimension(300, 0));
+
+        registry.addListener(() -> refresh(registry));
+        refresh(registry);
+    }
+
+    private void refresh(FunctionRegistry registry) {
+        List<FunctionEntry> entries = registry.getEntries();
+        if (entries.size() < model.size() || !model.isEmpty() && model.get(0) != entries.get(0)) {
+            // The entries were replaced by an opened workspace
+            model.clear();
+        }
+        for (FunctionEntry entry : entries.subList(model.size(), entries.size())) {
+            model.addElement(entry);
+        }
+        repaint();
+    }
+
+    private static class FunctionCellRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            FunctionEntry entry = (FunctionEntry) value;
+            setIcon(new ColourIcon(entry.colour));
+            setVerticalTextPosition(SwingConstants.TOP);
+            setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+            if (!isSelected) {
+                setBackground(list.getBackground());
+                setForeground(Color.WHITE);
+            }
+
+            if (entry.function instanceof PolynomialFunction polyFunction && !polyFunction.isAnalysed()) {
+                setText("<html><b>" + entry.getName() + ":</b> " + polyFunction.getFunctionString()
+                        + "<br>Analysing...</html>");
+            } else if (entry.function instanceof PolynomialFunction polyFunction && polyFunction.getUnavailableReason() != null) {
+                setText("<html><b>" + entry.getName() + ":</b> " + polyFunction.getFunctionString()
+                        + "<br>No analysis: " + polyFunction.getUnavailableReason() + "</html>");
+            } else if (entry.function instanceof PolynomialFunction polyFunction) {
+                String zeroPointsStr = polyFunction.getRoots().stream()
+                        .map(PolynomialRoot::toString)
+                        .collect(Collectors.joining(", "));
+                String extremePointsStr = polyFunction.getExtremePoints().stream()
+                        .map(ExtremePoint::toString)
+                        .collect(Collectors.joining(", "));
+                setText("<html><b>" + entry.getName() + ":</b> " + polyFunction.getFunctionString()
+                        + "<br>Roots: " + zeroPointsStr
+                        + "<br>Extreme Points: " + extremePointsStr + "</html>");
+            } else {
+                setText(entry.getName());
+            }
+            return this;
+        }
+    }
+
+    private record ColourIcon(Color colour) implements Icon {
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            g.setColor(colour);
+            g.fillRect(x, y + 2, getIconWidth(), getIconHeight() - 4);
+        }
+
+        @Override
+        public int getIconWidth() {
+            return 12;
+        }
+
+        @Override
+        public int getIconHeight() {
+            return 16;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Holds the plotted functions under stable ids. Entries are only added on the Swing thread, readers on other
+ * threads work on the immutable list returned by {@link #getEntries()}.
+ * The intersections of every pair are computed once over the whole real line and cached, so adding a function
+ * only computes the pairs it is part of. The intersections between the functions of an opened workspace are not
+ * cached but read from its file.
+ */
+public class FunctionRegistry {
+    private static final List<Color> PALETTE = List.of(Color.WHITE, Color.BLUE, Color.GREEN, Color.RED, Color.PINK);
+    private static final float GOLDEN_RATIO_CONJUGATE = 0.618034f;
+    // Functions other than polynomials are drawn from a ChebyshevApproximation with this accuracy and cache size each
+    private static final double APPROXIMATION_PIXEL_TOLERANCE = 0.25;
+    private static final long APPROXIMATION_MEMORY_BUDGET = 4L << 20;
+
+    private volatile List<FunctionEntry> entries = List.of();
+    private int nextId = 1;
+    // Replaced when a workspace is opened, after the entries, since the ids of its functions start at 1 again
+    private volatile Map<Long, List<Vector2D>> intersections = new ConcurrentHashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    // The first functions were opened from this workspace, or none
+    private volatile WorkspaceFile workspace = null;
+
+    public FunctionEntry add(ParametricFunction function) {
+        int id = nextId++;
+        FunctionEntry entry = new FunctionEntry(id, plotted(function), colourOf(id));
+        List<FunctionEntry> updated = new ArrayList<>(entries);
+        updated.add(entry);
+        entries = List.copyOf(updated);
+        listeners.forEach(Runnable::run);
+        return entry;
+    }
+
+    /**
+     * Replaces all functions by those of the workspace, under the ids 1 to n in their stored order.
+     */
+    public List<FunctionEntry> open(WorkspaceFile workspace) {
+        List<FunctionEntry> opened = new ArrayList<>(workspace.functions.size());
+        for (ParametricFunction function : workspace.functions) {
+            int id = opened.size() + 1;
+            opened.add(new FunctionEntry(id, plotted(function), colourOf(id)));
+        }
+        nextId = opened.size() + 1;
+        this.workspace = workspace;
+        entries = List.copyOf(opened);
+        intersections = new ConcurrentHashMap<>();
+        listeners.forEach(Runnable::run);
+        return entries;
+    }
+
+    /**
+     * Returns the number of leading entries that were opened from a workspace.
+     */
+    public int getStoredCount() {
+        WorkspaceFile workspace = this.workspace;
+        return workspace == null ? 0 : workspace.functions.size();
+    }
+
+    /**
+     * Passes the stored intersections between the functions of the opened workspace with minX <= x <= maxX.
+     */
+    public void forEachStoredIntersection(double minX, double maxX, Consumer<Vector2D> consumer) {
+        WorkspaceFile workspace = this.workspace;
+        if (workspace != null) {
+            workspace.forEachIntersection(minX, maxX, consumer);
+        }
+    }
+
+    public List<FunctionEntry> getEntries() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Notifies the listeners that data of existing entries, like their analysis, changed.
+     */
+    public void fireChanged() {
+        listeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Returns all real intersections of the two functions, currently only supported between polynomials.
+     * They are computed on the calling thread if they are not cached yet.
+     */
+    public List<Vector2D> getIntersections(FunctionEntry first, FunctionEntry second) {
+        Map<Long, List<Vector2D>> intersections = this.intersections;
+        if (!isEntry(first) || !isEntry(second)) {
+            // Entries replaced by a workspace must not be cached under the ids of its functions
+            return calculateIntersections(first.function, second.function);
+        }
+        return intersections.computeIfAbsent(pairKey(first, second), k -> calculateIntersections(first.function, second.function));
+    }
+
+    private boolean isEntry(FunctionEntry entry) {
+        List<FunctionEntry> entries = this.entries;
+        return entry.id <= entries.size() && entries.get(entry.id - 1) == entry;
+    }
+
+    /**
+     * Returns the intersections of the two functions if they were already computed, otherwise an empty list.
+     */
+    public List<Vector2D> getCachedIntersections(FunctionEntry first, FunctionEntry second) {
+        return intersections.getOrDefault(pairKey(first, second), List.of());
+    }
+
+    private static long pairKey(FunctionEntry first, FunctionEntry second) {
+        return ((long) Math.min(first.id, second.id) << 32) | Math.max(first.id, second.id);
+    }
+
+    private static List<Vector2D> calculateIntersections(ParametricFunction first, ParametricFunction second) {
+        List<Vector2D> result = new ArrayList<>();
+        if (first instanceof PolynomialFunction firstPolynomial && second instanceof PolynomialFunction secondPolynomial) {
+            // The graphs intersect exactly where the difference has its roots. Expressions in factored form only give
+            // the roots of their expanded difference that the factored form confirms, or none if one is not confirmed
+            PolynomialExpression difference = PolynomialExpression.sum(firstPolynomial.getExpression(),
+                    PolynomialExpression.product(PolynomialExpression.of(Polynomial.of(-1)), secondPolynomial.getExpression()));
+            EvaluationMode mode = firstPolynomial.getEvaluationMode() == EvaluationMode.COMPENSATED
+                    ? EvaluationMode.COMPENSATED : secondPolynomial.getEvaluationMode();
+            try {
+                for (PolynomialRoot root : difference.findRoots(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, mode)) {
+                    result.add(firstPolynomial.evaluate(root.x));
+                }
+            } catch (ArithmeticException e) {
+                result.clear();
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    /**
+     * Polynomials are cheap to evaluate and analysed exactly, any other function is evaluated from a cache of
+     * interpolants while rendering.
+     */
+    private static ParametricFunction plotted(ParametricFunction function) {
+        if (function instanceof PolynomialFunction || function instanceof ChebyshevApproximation) {
+            return function;
+        }
+        return new ChebyshevApproximation(function, APPROXIMATION_PIXEL_TOLERANCE, APPROXIMATION_MEMORY_BUDGET);
+    }
+
+    private static Color colourOf(int id) {
+        if (id <= PALETTE.size()) {
+            return PALETTE.get(id - 1);
+        }
+        // Spread further hues with the golden angle so neighbouring ids stay distinguishable
+        float hue = (id * GOLDEN_RATIO_CONJUGATE) % 1f;
+        return Color.getHSBColor(hue, 0.6f, 0.95f);
+    }
+}
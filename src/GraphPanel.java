@@ -1,28 +1,102 @@
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.geom.GeneralPath;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class GraphPanel extends JPanel {
+    private static final String WORKSPACE_EXTENSION = "pvws";
+
     private double zoom = 1.0;
     private Vector2D offset = new Vector2D(0,0);
     private double scale = 50.0;
-    private final Color backgroundColor = new Color(0.13f, 0.16f, 0.2f);
     private Vector2D lastMousePosition = null;
     private JTextField functionField;
     public JButton resetButton;
-    private final List<ParametricFunction> polynomials = new ArrayList<>();
-    List<Color> colours = Arrays.asList(Color.WHITE, Color.BLUE, Color.GREEN, Color.RED, Color.PINK);
+    private final FunctionRegistry registry = new FunctionRegistry();
+    private int functionsVersion = 0;
+    // Incremented whenever an asynchronous analysis has published roots, extremes and intersections
+    private int analysisVersion = 0;
+    private final FunctionAnalyzer analyzer = new FunctionAnalyzer(ForkJoinPool.commonPool());
+    // Intersections only depend on the analysed function set and the visible x-interval, so hover repaints reuse
+    // them. These fields are only accessed from the render thread.
+    private List<Vector2D> intersectionCache = null;
+    private Object intersectionCacheKey = null;
+
+    // Frames are rendered off the EDT into the back buffer and swapped with the front buffer when complete
+    private final GraphRenderer renderer = new GraphRenderer();
+    private final ExecutorService renderExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "graph-render");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong renderGeneration = new AtomicLong();
+    private Future<?> pendingRender = null;
+    private final Object frameLock = new Object();
+    private BufferedImage frontBuffer = null;
+    private BufferedImage backBuffer = null;
+    private Viewport frontViewport = null;
+    private List<Vector2D> frontIntersections = List.of();
+    // Layers are only redrawn when their inputs change: the view for the background, the view and the data set for
+    // the samples, the view, the function set and the available tiles for the curves and the view and the analysis
+    // results for the intersection markers
+    private final RenderLayer backgroundLayer = new RenderLayer(true);
+    private final RenderLayer markerLayer = new RenderLayer(false);
+    private final RenderLayer dataLayer = new RenderLayer(false);
+    // The curve layer is composed from tiles, the previous composition fills in tiles that are still rendering
+    private RenderLayer curveLayer = new RenderLayer(false);
+    private RenderLayer previousCurveLayer = new RenderLayer(false);
+    private Viewport curveLayerViewport = null;
+    private int curveLayerVersion = -1;
+    private List<FunctionEntry> curveLayerEntries = List.of();
+    private final TileCache tileCache = new TileCache(Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+            Long.getLong("polynomialvisualizer.tileCacheMegabytes", 64) << 20,
+            () -> SwingUtilities.invokeLater(this::requestRender));
+    private final Font tooltipFont = new Font("Arial", Font.BOLD, 14);
+    private final RenderMetrics metrics = new RenderMetrics();
+    private final Font statsFont = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private boolean showStats = false;
+    // New functions are evaluated and analysed with the compensated Horner scheme
+    private boolean preciseEvaluation = false;
+    private LoadedData loadedData = LoadedData.NONE;
+
+    /**
+     * The density grid of the last loaded data set, drawn below the curves in the colour of its fit.
+     */
+    private static class LoadedData {
+        static final LoadedData NONE = new LoadedData(null, null);
+
+        final DensityGrid density;
+        final Color colour;
+
+        LoadedData(DensityGrid density, Color colour) {
+            this.density = density;
+            this.colour = colour;
+        }
+    }
+
     private class GraphMouseListener extends MouseAdapter {
         @Override
         public void mouseWheelMoved(MouseWheelEvent e) {
-            zoom -= e.getPreciseWheelRotation() * 0.1;
+            // Zoom levels are snapped to buckets of 0.01, so returning to a level reuses its cached tiles
+            zoom = Math.round((zoom - e.getPreciseWheelRotation() * 0.1) * 100) / 100.0;
             if (zoom < 0.1) zoom = 0.1;
-            repaint();
+            updateScale();
+            requestRender();
         }
 
         @Override
@@ -43,6 +117,7 @@ public class GraphPanel extends JPanel {
             offset.x += delta.x / scale;
             offset.y -= delta.y / scale;
             lastMousePosition = currentMousePosition;
+            requestRender();
             repaint();
         }
     }
@@ -50,16 +125,119 @@ public class GraphPanel extends JPanel {
     private class CalculateActionListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            if(polynomials.size() < 3){
-                String function = functionField.getText();
-                double minT = toWorldCoordinates(new Vector2D(0, 0)).x;
-                double maxT = toWorldCoordinates(new Vector2D(getWidth(), 0)).x;
-                polynomials.add(new PolynomialFunction(function, minT, maxT));
-                repaint();
-            } else {
-                GraphPanel.infoBox("You reached the maximum amount of Graphs", "MAX_GRAPHS_REACHED");
+            String function = functionField.getText();
+            Viewport viewport = currentViewport();
+            PolynomialFunction polynomial;
+            try {
+                polynomial = new PolynomialFunction(function);
+                if (preciseEvaluation) {
+                    polynomial.setEvaluationMode(EvaluationMode.COMPENSATED);
+                }
+            } catch (IllegalArgumentException exception) {
+                GraphPanel.infoBox(exception.getMessage(), "INVALID_FUNCTION");
+                return;
+            }
+            addFunction(polynomial, viewport);
+        }
+    }
+
+    private class LoadDataActionListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("Load x/y samples");
+            if (chooser.showOpenDialog(GraphPanel.this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            String degreeText = JOptionPane.showInputDialog(GraphPanel.this, "Degree of the fitted polynomial", "3");
+            if (degreeText == null) {
+                return;
+            }
+            int degree;
+            try {
+                degree = Integer.parseInt(degreeText.strip());
+            } catch (NumberFormatException exception) {
+                GraphPanel.infoBox("Invalid degree: " + degreeText, "INVALID_DEGREE");
+                return;
             }
 
+            Path path = chooser.getSelectedFile().toPath();
+            Viewport viewport = currentViewport();
+            CompletableFuture.supplyAsync(() -> {
+                try {
+                    return SampleData.load(path, degree);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            }).whenComplete((data, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    GraphPanel.infoBox("Could not load " + path.getFileName() + ": " + unwrap(error).getMessage(), "INVALID_DATA");
+                    return;
+                }
+                PolynomialFunction fit = data.fit;
+                if (preciseEvaluation) {
+                    fit.setEvaluationMode(EvaluationMode.COMPENSATED);
+                }
+                FunctionEntry entry = addFunction(fit, viewport);
+                loadedData = new LoadedData(data.density, entry.colour);
+                requestRender();
+                GraphPanel.infoBox(String.format("%s fitted to %d samples of %s, rms residual %.4g, %d lines skipped",
+                        entry.getName(), data.sampleCount, path.getFileName(), data.rmsResidual, data.skippedLines), "DATA_LOADED");
+            }));
+        }
+    }
+
+    private class OpenActionListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            JFileChooser chooser = createWorkspaceChooser("Open workspace");
+            if (chooser.showOpenDialog(GraphPanel.this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            Path path = chooser.getSelectedFile().toPath();
+            CompletableFuture.supplyAsync(() -> {
+                try {
+                    return WorkspaceFile.open(path);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            }).whenComplete((workspace, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    GraphPanel.infoBox("Could not open " + path.getFileName() + ": " + unwrap(error).getMessage(), "INVALID_WORKSPACE");
+                    return;
+                }
+                openWorkspace(workspace);
+            }));
+        }
+    }
+
+    private class SaveActionListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            JFileChooser chooser = createWorkspaceChooser("Save workspace");
+            if (chooser.showSaveDialog(GraphPanel.this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            Path path = chooser.getSelectedFile().toPath();
+            if (!path.getFileName().toString().contains(".")) {
+                path = path.resolveSibling(path.getFileName() + "." + WORKSPACE_EXTENSION);
+            }
+            Path target = path;
+            // Copied since panning moves the offset in place while the file is written
+            Vector2D savedOffset = new Vector2D(offset.x, offset.y);
+            double savedZoom = zoom;
+            // Intersections of pairs whose analysis is still running are computed on the background thread
+            CompletableFuture.runAsync(() -> {
+                try {
+                    WorkspaceFile.write(target, savedOffset, savedZoom, registry);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            }).whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    GraphPanel.infoBox("Could not save " + target.getFileName() + ": " + unwrap(error).getMessage(), "SAVE_FAILED");
+                }
+            }));
         }
     }
 
@@ -68,7 +246,8 @@ public class GraphPanel extends JPanel {
         public void actionPerformed(ActionEvent e) {
             offset = new Vector2D(0,0);
             zoom = 1.0;
-            repaint();
+            updateScale();
+            requestRender();
         }
     }
 
@@ -77,10 +256,26 @@ public class GraphPanel extends JPanel {
         public void actionPerformed(ActionEvent e) {
             // will be reimplemented in the interface to the gui
             //((PolynomialFunction)polynomial).derive();
+            // Nothing is derived yet, so the caches and tiles of the functions stay valid
             repaint();
         }
     }
 
+    private class StatsActionListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            showStats = ((JToggleButton) e.getSource()).isSelected();
+            repaint();
+        }
+    }
+
+    private class PreciseActionListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            preciseEvaluation = ((JToggleButton) e.getSource()).isSelected();
+        }
+    }
+
     public GraphPanel() {
         // Parametric function will be added through either a secondary instance of graph panel or reinitialitianio
         // default parametric function to test functionality. Using the textfield it will become a polynomial
@@ -96,6 +291,14 @@ public class GraphPanel extends JPanel {
 //            extremePoints = ((PolynomialFunction)polynomial).getExtremePoints(minT, maxT, 0.01);
 //        }
 
+        setBackground(GraphRenderer.BACKGROUND_COLOR);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                requestRender();
+            }
+        });
+
         GraphMouseListener graphMouseListener = new GraphMouseListener();
         addMouseWheelListener(graphMouseListener);
         addMouseListener(graphMouseListener);
@@ -105,10 +308,101 @@ public class GraphPanel extends JPanel {
         createFunctionField();
         createCalculateButton();
         createDeriveButton();
+        createLoadDataButton();
+        createPreciseButton();
+        createOpenButton();
+        createSaveButton();
+        createStatsButton();
+
+        metrics.registerMBean();
+    }
+
+    public FunctionRegistry getRegistry() {
+        return registry;
+    }
+
+    public RenderMetrics getMetrics() {
+        return metrics;
+    }
+
+    public TileCache getTileCache() {
+        return tileCache;
+    }
+
+    /**
+     * Adds the function and analyses it for the view in the background.
+     */
+    private FunctionEntry addFunction(PolynomialFunction polynomial, Viewport viewport) {
+        List<FunctionEntry> others = registry.getEntries();
+        FunctionEntry entry = registry.add(polynomial);
+        functionsChanged();
+        analyse(entry, polynomial, viewport, others);
+        return entry;
+    }
+
+    /**
+     * Replaces all functions and the view by those of the workspace. Its analysis and intersections are only read
+     * from the file when they are shown.
+     */
+    private void openWorkspace(WorkspaceFile workspace) {
+        loadedData = LoadedData.NONE;
+        // Copied since panning moves the offset in place, which must not change the opened workspace
+        offset = new Vector2D(workspace.offset.x, workspace.offset.y);
+        zoom = workspace.zoom;
+        updateScale();
+        List<FunctionEntry> entries = registry.open(workspace);
+        analysisVersion++;
+        functionsChanged();
+
+        // Functions saved before their analysis was done are analysed again, their intersections are in the file
+        Viewport viewport = currentViewport();
+        for (FunctionEntry entry : entries) {
+            if (entry.function instanceof PolynomialFunction polynomial && !polynomial.isAnalysed()) {
+                analyse(entry, polynomial, viewport, List.of());
+            }
+        }
+    }
+
+    private void analyse(FunctionEntry entry, PolynomialFunction polynomial, Viewport viewport, List<FunctionEntry> others) {
+        // The curve is drawn right away, roots, extremes and intersections follow when the analysis is done
+        analyzer.analyze(entry, polynomial, viewport.minX(), viewport.maxX(), others, registry)
+                .exceptionally(error -> {
+                    Throwable cause = unwrap(error);
+                    System.err.println("Analysis of " + entry.getName() + " failed: " + cause);
+                    return FunctionAnalysis.unavailable("analysis failed, " + (cause.getMessage() != null
+                            ? cause.getMessage() : cause.getClass().getSimpleName()));
+                })
+                .thenAccept(analysis -> SwingUtilities.invokeLater(() -> {
+                    polynomial.setAnalysis(analysis);
+                    analysisVersion++;
+                    registry.fireChanged();
+                    requestRender();
+                }));
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof UncheckedIOException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static JFileChooser createWorkspaceChooser(String title) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle(title);
+        chooser.setFileFilter(new FileNameExtensionFilter("Workspaces (*." + WORKSPACE_EXTENSION + ")", WORKSPACE_EXTENSION));
+        return chooser;
+    }
+
+    private void functionsChanged() {
+        functionsVersion++;
+        requestRender();
     }
 
     private void createFunctionField() {
         functionField = new JTextField(20);
+        functionField.setToolTipText("For example 3x^2 - 1/2x + 4, (x-1)(x-2)(x-3), (1+x)^50 or (x^2+1)@(x-3)");
         add(functionField);
     }
 
@@ -129,186 +423,263 @@ public class GraphPanel extends JPanel {
         add(deriveButton);
     }
 
+    private void createPreciseButton() {
+        JToggleButton preciseButton = new JToggleButton("Precise");
+        preciseButton.setToolTipText("Evaluate new functions with compensated arithmetic");
+        preciseButton.addActionListener(new PreciseActionListener());
+        add(preciseButton);
+    }
+
+    private void createLoadDataButton() {
+        JButton loadDataButton = new JButton("Load data");
+        loadDataButton.setToolTipText("Fit a polynomial to x/y samples from a CSV file");
+        loadDataButton.addActionListener(new LoadDataActionListener());
+        add(loadDataButton);
+    }
+
+    private void createOpenButton() {
+        JButton openButton = new JButton("Open");
+        openButton.setToolTipText("Replace the functions and the view by a saved workspace");
+        openButton.addActionListener(new OpenActionListener());
+        add(openButton);
+    }
+
+    private void createSaveButton() {
+        JButton saveButton = new JButton("Save");
+        saveButton.setToolTipText("Save the functions, their analysis and the view as a workspace");
+        saveButton.addActionListener(new SaveActionListener());
+        add(saveButton);
+    }
+
+    private void createStatsButton() {
+        JToggleButton statsButton = new JToggleButton("Stats");
+        statsButton.addActionListener(new StatsActionListener());
+        add(statsButton);
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
+        long paintStart = System.nanoTime();
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        int width = getWidth();
-        int height = getHeight();
-
-        clearBackground(g2d, width, height);
-        updateScale();
-        double step = calculateGridStep();
-        Vector2D zero = toScreenCoordinates(new Vector2D(0,0));
-
-        drawAxes(g2d, width, height, zero);
-        drawGrid(g2d, width, height, step);
-        drawFunctions(g2d, width);
-        drawLabelsAndScales(g2d, width, height, step);
-        drawInformationWindows(g2d);
-        drawIntersections(g2d);
+        Viewport viewport = currentViewport();
+        List<Vector2D> intersections;
+        synchronized (frameLock) {
+            if (frontBuffer == null) {
+                return;
+            }
+            // While a newer frame is rendering, the last one is shifted to follow the pan
+            int dx = 0;
+            int dy = 0;
+            if (frontViewport.scale == viewport.scale) {
+                dx = viewport.zeroX() - frontViewport.zeroX();
+                dy = viewport.zeroY() - frontViewport.zeroY();
+            }
+            g2d.drawImage(frontBuffer, dx, dy, null);
+            intersections = frontIntersections;
+        }
+        drawIntersectionTooltip(g2d, viewport, intersections);
+        metrics.recordPaint(System.nanoTime() - paintStart);
+        if (showStats) {
+            drawStats(g2d);
+        }
     }
 
-    private void clearBackground(Graphics2D g2d, int width, int height) {
-        g2d.setColor(backgroundColor);
-        g2d.fillRect(0, 0, width, height);
+    private void drawStats(Graphics2D g2d) {
+        RenderMetrics.Frame frame = metrics.getLastFrame();
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-13s %7.2f ms  (avg %.2f, max %.2f)", "frame", frame.frameNanos / 1e6,
+                metrics.getAverageFrameMillis(), metrics.getMaxFrameMillis()));
+        for (RenderMetrics.Phase phase : RenderMetrics.Phase.values()) {
+            lines.add(String.format("%-13s %7.2f ms", phase.name().toLowerCase(), frame.phaseNanos(phase) / 1e6));
+        }
+        lines.add(String.format("%-13s %7.2f ms", "paint", metrics.getLastPaintMillis()));
+        lines.add(String.format("evaluations %d, samples %d", frame.evaluations, frame.samples));
+        lines.add(frame.allocatedBytes < 0 ? "allocated n/a" : String.format("allocated %d KB", frame.allocatedBytes / 1024));
+        lines.add(String.format("functions %d, max degree %d, scale %.1f", frame.functionCount, frame.maxDegree, frame.scale));
+        lines.add(String.format("tiles %d cached, %d rendered", tileCache.size(), tileCache.getCompletedCount()));
+
+        g2d.setFont(statsFont);
+        FontMetrics fontMetrics = g2d.getFontMetrics();
+        int lineHeight = fontMetrics.getHeight();
+        int boxWidth = 0;
+        for (String line : lines) {
+            boxWidth = Math.max(boxWidth, fontMetrics.stringWidth(line));
+        }
+        int x = 10;
+        int y = getHeight() - 10 - lines.size() * lineHeight;
+        g2d.setColor(new Color(0, 0, 0, 160));
+        g2d.fillRect(x - 4, y - 4, boxWidth + 8, lines.size() * lineHeight + 8);
+        g2d.setColor(Color.GREEN);
+        for (int i = 0; i < lines.size(); i++) {
+            g2d.drawString(lines.get(i), x, y + i * lineHeight + fontMetrics.getAscent());
+        }
     }
 
     private void updateScale() {
         scale = 50.0 * zoom;
     }
 
-    private double calculateGridStep() {
-        double step = 1.0;
-        while (scale * step < 20) {
-            step *= 2;
+    private Viewport currentViewport() {
+        return new Viewport(getWidth(), getHeight(), offset, scale);
+    }
+
+    /**
+     * Schedules a new frame for the current view and function set, superseding any frame still being rendered.
+     */
+    private void requestRender() {
+        Viewport viewport = currentViewport();
+        if (viewport.width <= 0 || viewport.height <= 0) {
+            return;
         }
-        while (scale * step > 100) {
-            step /= 2;
+        List<FunctionEntry> functions = registry.getEntries();
+        int version = functionsVersion;
+        int analysis = analysisVersion;
+        LoadedData data = loadedData;
+        long generation = renderGeneration.incrementAndGet();
+        if (pendingRender != null) {
+            pendingRender.cancel(false);
         }
-        return step;
+        pendingRender = renderExecutor.submit(() -> renderFrame(generation, viewport, functions, version, analysis, data));
     }
 
-    private void drawAxes(Graphics2D g2d, int width, int height, Vector2D zero) {
-        g2d.setColor(Color.WHITE);
-        g2d.setStroke(new BasicStroke(0.5f));
-        g2d.drawLine(0, (int)zero.y, width, (int)zero.y);
-        g2d.drawLine((int)zero.x, 0, (int)zero.x, height);
+    private boolean isStale(long generation) {
+        return generation != renderGeneration.get();
     }
 
-    private void drawGrid(Graphics2D g2d, int width, int height, double step) {
-        g2d.setColor(new Color(200, 200, 200, 40));
-
-        for (double x = step * Math.floor((-offset.x - width / (2.0 * scale)) / step); x <= -offset.x + width / (2.0 * scale); x += step) {
-            Vector2D screenPoint = toScreenCoordinates(new Vector2D(x,0));
-            int screenX = (int) screenPoint.x;
-            g2d.drawLine(screenX, 0, screenX, height);
+    private void renderFrame(long generation, Viewport viewport, List<FunctionEntry> functions, int version, int analysis,
+                             LoadedData data) {
+        // The curves are drawn by the tile workers, whose work in the meantime is counted for this frame
+        metrics.beginFrame(renderer.getEvaluationCount() + tileCache.getEvaluationCount(),
+                renderer.getDrawnPointCount() + tileCache.getDrawnPointCount());
+        if (!backgroundLayer.isValidFor(viewport)) {
+            Graphics2D g2d = backgroundLayer.redraw(viewport.width, viewport.height);
+            try {
+                renderer.clearBackground(g2d, viewport);
+                renderer.drawAxes(g2d, viewport);
+                renderer.drawGrid(g2d, viewport);
+                renderer.drawLabelsAndScales(g2d, viewport);
+            } finally {
+                g2d.dispose();
+            }
+            backgroundLayer.markValid(viewport);
         }
-
-        for (double y = step * Math.floor((-offset.y - height / (2.0 * scale)) / step); y <= -offset.y + height / (2.0 * scale); y += step) {
-            Vector2D screenPoint = toScreenCoordinates(new Vector2D(0,y));
-            int screenY = (int) screenPoint.y;
-            g2d.drawLine(0, screenY, width, screenY);
+        metrics.mark(RenderMetrics.Phase.BACKGROUND);
+
+        // The samples count as curves in the metrics
+        Object dataKey = List.of(viewport, data);
+        if (!dataLayer.isValidFor(dataKey)) {
+            Graphics2D g2d = dataLayer.redraw(viewport.width, viewport.height);
+            try {
+                if (data.density != null) {
+                    renderer.drawDensity(g2d, viewport, data.density, data.colour);
+                }
+            } finally {
+                g2d.dispose();
+            }
+            dataLayer.markValid(dataKey);
         }
-    }
-
-    private void drawFunctions(Graphics2D g2d, int width) {
-        GeneralPath path;
-
-        double minT = toWorldCoordinates(new Vector2D(0, 0)).x;
-        double maxT = toWorldCoordinates(new Vector2D(width, 0)).x;
-
-        int numSteps = (int) Math.max(5000, 10000 * zoom);
-
-        double tStep = (maxT - minT) / numSteps;
-
 
-        for (int x = 0; x < polynomials.size(); x++) {
-            path = new GeneralPath();
-            double t = minT;
-
-            Vector2D initialPosition = toScreenCoordinates(polynomials.get(x).evaluate(t));
-            path.moveTo(initialPosition.x, initialPosition.y);
-
-            for (int i = 0; i < numSteps; i += 3) {
-                double t1 = t + tStep;
-                double t2 = t1 + tStep;
-                double t3 = t2 + tStep;
-
-                Vector2D p1 = toScreenCoordinates(polynomials.get(x).evaluate(t1));
-                Vector2D p2 = toScreenCoordinates(polynomials.get(x).evaluate(t2));
-                Vector2D p3 = toScreenCoordinates(polynomials.get(x).evaluate(t3));
-
-                path.curveTo(p1.x, p1.y, p2.x, p2.y, p3.x, p3.y);
-
-                t = t3;
+        Object curveKey = List.of(viewport, version, tileCache.getCompletedCount());
+        if (!curveLayer.isValidFor(curveKey)) {
+            RenderLayer previous = curveLayer;
+            curveLayer = previousCurveLayer;
+            previousCurveLayer = previous;
+            Graphics2D g2d = curveLayer.redraw(viewport.width, viewport.height);
+            try {
+                List<Rectangle> missing = tileCache.drawTiles(g2d, viewport, version, functions);
+                // The previous composition is only a valid preview if it shows no functions that were removed since
+                if (!missing.isEmpty() && curveLayerViewport != null
+                        && (version == curveLayerVersion || TileCache.isExtensionOf(functions, curveLayerEntries))) {
+                    drawPreview(g2d, missing, previous, curveLayerViewport, viewport);
+                }
+            } finally {
+                g2d.dispose();
             }
-
-            g2d.setStroke(new BasicStroke(2.0f));
-            g2d.setColor(colours.get(x % colours.size()));
-            g2d.draw(path);
+            curveLayer.markValid(curveKey);
+            if (curveLayerViewport != null && curveLayerViewport.scale == viewport.scale) {
+                tileCache.prefetch(viewport, version, functions, Integer.signum(curveLayerViewport.zeroX() - viewport.zeroX()),
+                        Integer.signum(curveLayerViewport.zeroY() - viewport.zeroY()));
+            }
+            curveLayerViewport = viewport;
+            curveLayerVersion = version;
+            curveLayerEntries = functions;
         }
-    }
-
-    private void drawLabelsAndScales(Graphics2D g2d, int width, int height, double step) {
-        g2d.setColor(Color.WHITE);
-        g2d.setStroke(new BasicStroke(0.5f));
-        g2d.setFont(new Font("Arial", Font.PLAIN, 10));
-        int tickSize = 3;
-
-        for (double x = step * Math.floor((-offset.x - width / (2.0 * scale)) / step); x <= -offset.x + width / (2.0 * scale); x += step) {
-            Vector2D screenPoint = toScreenCoordinates(new Vector2D(x,0));
-            Vector2D zeroPoint = toScreenCoordinates(new Vector2D(0,0));
-            g2d.drawLine((int) screenPoint.x, (int) zeroPoint.y - tickSize, (int) screenPoint.x, (int) zeroPoint.y + tickSize);
-            String label = String.format("%.2f", x);
-            int textOffset = (x < 0) ? -2 - g2d.getFontMetrics().stringWidth(label) : 2;
-            g2d.drawString(label, (int) screenPoint.x + textOffset, (int) zeroPoint.y - 2);
+        metrics.mark(RenderMetrics.Phase.CURVES);
+
+        List<Vector2D> intersections = getIntersections(functions, version, analysis, viewport);
+        metrics.mark(RenderMetrics.Phase.INTERSECTIONS);
+        Object markerKey = List.of(viewport, version, analysis);
+        if (!markerLayer.isValidFor(markerKey)) {
+            Graphics2D g2d = markerLayer.redraw(viewport.width, viewport.height);
+            try {
+                renderer.drawIntersections(g2d, viewport, intersections);
+            } finally {
+                g2d.dispose();
+            }
+            markerLayer.markValid(markerKey);
         }
+        metrics.mark(RenderMetrics.Phase.MARKERS);
 
-        for (double y = step * Math.floor((-offset.y - height / (2.0 * scale)) / step); y <= -offset.y + height / (2.0 * scale); y += step) {
-            Vector2D screenPoint = toScreenCoordinates(new Vector2D(0,y));
-            Vector2D zeroPoint = toScreenCoordinates(new Vector2D(0,0));
-            g2d.drawLine((int) zeroPoint.x - tickSize, (int) screenPoint.y, (int) zeroPoint.x + tickSize, (int) screenPoint.y);
-            String label = String.format("%.2f", y);
-            int textOffset = (y < 0) ? g2d.getFontMetrics().getAscent() + 2 : -2;
-            g2d.drawString(label, (int) zeroPoint.x + 2, (int) screenPoint.y + textOffset);
+        if (isStale(generation)) {
+            return;
+        }
+        if (backBuffer == null || backBuffer.getWidth() != viewport.width || backBuffer.getHeight() != viewport.height) {
+            backBuffer = new BufferedImage(viewport.width, viewport.height, BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D g2d = backBuffer.createGraphics();
+        try {
+            backgroundLayer.drawOnto(g2d);
+            dataLayer.drawOnto(g2d);
+            curveLayer.drawOnto(g2d);
+            markerLayer.drawOnto(g2d);
+        } finally {
+            g2d.dispose();
         }
-    }
-
-    private void drawInformationWindows(Graphics2D g2d) {
-        int boxWidth = (getWidth() - 40) / 3;
-        int boxY = getHeight() - 90;
-        int boxHeight = 80;
-        Font font = new Font("Arial", Font.PLAIN, 12);
-
-        int index = 0;
-        for (Object function : polynomials) {
-            if (function instanceof PolynomialFunction polyFunction) {
-                int boxX = 10 + index * (boxWidth + 10);
-
-                g2d.setColor(new Color(100, 100, 100, 200));
-                g2d.fillRect(boxX, boxY, boxWidth, boxHeight);
-
-                g2d.setColor(Color.WHITE);
-                g2d.setFont(font);
-
-                String functionString = "Function: " + polyFunction.getFunctionString();
-                String zeroPointsStr = "Roots: " + polyFunction.roots.stream()
-                        .map(z -> String.format("%.2f", z))
-                        .collect(Collectors.joining(", "));
-                String extremePointsStr = "Extreme Points: " + polyFunction.extremePoints.stream()
-                        .map(e -> String.format("%.2f", e))
-                        .collect(Collectors.joining(", "));
-
-                g2d.drawString(functionString, boxX + 10, boxY + 20);
-                g2d.drawString(zeroPointsStr, boxX + 10, boxY + 40);
-                g2d.drawString(extremePointsStr, boxX + 10, boxY + 60);
 
-                index++;
-            }
+        synchronized (frameLock) {
+            BufferedImage previousFront = frontBuffer;
+            frontBuffer = backBuffer;
+            backBuffer = previousFront;
+            frontViewport = viewport;
+            frontIntersections = intersections;
         }
+        metrics.mark(RenderMetrics.Phase.COMPOSE);
+        metrics.endFrame(renderer.getEvaluationCount() + tileCache.getEvaluationCount(),
+                renderer.getDrawnPointCount() + tileCache.getDrawnPointCount(), functions.size(),
+                maxDegree(functions), viewport.scale);
+        repaint();
     }
 
-    private Vector2D toScreenCoordinates(Vector2D position) {
-        int zeroX = getWidth() / 2 + (int) (offset.x * scale);
-        int zeroY =  getHeight() / 2 - (int) (offset.y * scale);
-
-        int screenX = zeroX + (int) (position.x * scale);
-        int screenY = zeroY - (int) (position.y * scale);
-
-        return new Vector2D(screenX, screenY);
+    /**
+     * Fills the missing tiles with the previous curve raster, moved and scaled from its view to the new one.
+     */
+    private static void drawPreview(Graphics2D g2d, List<Rectangle> missing, RenderLayer previous, Viewport from, Viewport to) {
+        double ratio = to.scale / from.scale;
+        AffineTransform transform = new AffineTransform();
+        transform.translate(to.zeroX(), to.zeroY());
+        transform.scale(ratio, ratio);
+        transform.translate(-from.zeroX(), -from.zeroY());
+
+        Area area = new Area();
+        for (Rectangle tile : missing) {
+            area.add(new Area(tile));
+        }
+        g2d.setClip(area);
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        previous.drawOnto(g2d, transform);
     }
 
-    private Vector2D toWorldCoordinates(Vector2D position) {
-        int zeroX = getWidth() / 2 + (int) (offset.x * scale);
-        int zeroY = getHeight() / 2 - (int) (offset.y * scale);
-
-        double x = (position.x - zeroX) / scale;
-        double y = (zeroY - position.y) / scale;
-
-        return new Vector2D(x, y);
+    private static int maxDegree(List<FunctionEntry> functions) {
+        int maxDegree = 0;
+        for (FunctionEntry entry : functions) {
+            if (entry.function instanceof PolynomialFunction polynomial) {
+                maxDegree = Math.max(maxDegree, polynomial.degree());
+            }
+        }
+        return maxDegree;
     }
 
     public static void infoBox(String infoMessage, String titleBar)
@@ -316,16 +687,14 @@ public class GraphPanel extends JPanel {
         JOptionPane.showMessageDialog(null, infoMessage, "InfoBox: " + titleBar, JOptionPane.INFORMATION_MESSAGE);
     }
 
-    private void drawIntersections(Graphics2D g2d){
-        List<Vector2D> intersectionPoints = calculateIntersections();
-        g2d.setColor(Color.YELLOW);
-        Font font = new Font("Arial", Font.BOLD, 14);
-        g2d.setFont(font);
-        FontMetrics metrics = g2d.getFontMetrics(font);
+    private void drawIntersectionTooltip(Graphics2D g2d, Viewport viewport, List<Vector2D> intersections) {
+        if (lastMousePosition == null) {
+            return;
+        }
+        FontMetrics metrics = g2d.getFontMetrics(tooltipFont);
 
-        for (Vector2D intersection : intersectionPoints) {
-            Vector2D screenPoint = toScreenCoordinates(intersection);
-            g2d.fillOval((int) screenPoint.x - 3, (int) screenPoint.y - 3, 6, 6);
+        for (Vector2D intersection : intersections) {
+            Vector2D screenPoint = viewport.toScreenCoordinates(intersection);
             if (screenPoint.distance(lastMousePosition) < 5) {
 
                 String text = String.format("(%.2f, %.2f)", intersection.x, intersection.y);
@@ -338,6 +707,7 @@ public class GraphPanel extends JPanel {
                 g2d.setColor(new Color(0, 0, 0, 128));
                 g2d.fillRect(x - 2, y - textHeight, textWidth + 4, textHeight + 2);
 
+                g2d.setFont(tooltipFont);
                 g2d.setColor(Color.YELLOW);
                 g2d.drawString(text, x, y);
 
@@ -346,28 +716,31 @@ public class GraphPanel extends JPanel {
         }
     }
 
-    private List<Vector2D> calculateIntersections() {
+    private List<Vector2D> getIntersections(List<FunctionEntry> functions, int version, int analysis, Viewport viewport) {
+        double minT = viewport.minX();
+        double maxT = viewport.maxX();
+        Object key = List.of(version, analysis, minT, maxT);
+
+        if (intersectionCache == null || !key.equals(intersectionCacheKey)) {
+            intersectionCache = calculateIntersections(functions, minT, maxT);
+            intersectionCacheKey = key;
+        }
+        return intersectionCache;
+    }
+
+    /**
+     * Collects the visible intersections of all pairs whose analysis has already been published. Those between
+     * functions of an opened workspace are looked up in its file.
+     */
+    private List<Vector2D> calculateIntersections(List<FunctionEntry> functions, double minT, double maxT) {
         List<Vector2D> intersections = new ArrayList<>();
+        registry.forEachStoredIntersection(minT, maxT, intersections::add);
 
-        double minT = toWorldCoordinates(new Vector2D(0, 0)).x;
-        double maxT = toWorldCoordinates(new Vector2D(getWidth(), 0)).x;
-        double step = 0.0001;
-        if (polynomials.size() < 2) {
-            return intersections;
-        }
-
-        for (double x = minT; x <= maxT; x += step) {
-            for (int i = 0; i < polynomials.size(); i++) {
-                for (int j = i + 1; j < polynomials.size(); j++) {
-                    double y1Prev = polynomials.get(i).evaluate(x - step).y;
-                    double y1Curr = polynomials.get(i).evaluate(x).y;
-                    double y2Prev = polynomials.get(j).evaluate(x - step).y;
-                    double y2Curr = polynomials.get(j).evaluate(x).y;
-
-                    if ((y1Prev - y2Prev) * (y1Curr - y2Curr) < 0) {
-                        double intersectX = x - step / 2;
-                        double intersectY = (y1Curr + y2Curr) / 2;
-                        intersections.add(new Vector2D(intersectX, intersectY));
+        for (int j = Math.max(1, registry.getStoredCount()); j < functions.size(); j++) {
+            for (int i = 0; i < j; i++) {
+                for (Vector2D intersection : registry.getCachedIntersections(functions.get(i), functions.get(j))) {
+                    if (intersection.x >= minT && intersection.x <= maxT) {
+                        intersections.add(intersection);
                     }
                 }
             }
@@ -0,0 +1,247 @@
+import java.awt.*;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Draws the layers of a graph for a given Viewport. It does not touch any Swing state, so it can run on a
+ * render thread. An instance reuses its sampling buffers and must only be used by one thread at a time.
+ */
+public class GraphRenderer {
+    public static final Color BACKGROUND_COLOR = new Color(0.13f, 0.16f, 0.2f);
+    private static final Font LABEL_FONT = new Font("Arial", Font.PLAIN, 10);
+    private static final Stroke THIN_STROKE = new BasicStroke(0.5f);
+    private static final Stroke CURVE_STROKE = new BasicStroke(2.0f);
+    private static final int TILE_MARGIN = 4;
+
+    private final AdaptiveSampler sampler = new AdaptiveSampler();
+    private long drawnPointCount = 0;
+    private long[] densityPixels = new long[0];
+    private BufferedImage densityImage = null;
+
+    /**
+     * Draws a complete frame synchronously, without any of the layer and tile caching of GraphPanel.
+     */
+    public void drawFrame(Graphics2D g2d, Viewport viewport, List<FunctionEntry> functions, List<Vector2D> intersections) {
+        clearBackground(g2d, viewport);
+        drawAxes(g2d, viewport);
+        drawGrid(g2d, viewport);
+        drawLabelsAndScales(g2d, viewport);
+        for (FunctionEntry entry : functions) {
+            drawFunction(g2d, viewport, entry.function, entry.colour);
+        }
+        for (FunctionEntry entry : functions) {
+            if (entry.function instanceof PolynomialFunction polynomial) {
+                drawRootsAndExtremePoints(g2d, viewport, polynomial, entry.colour);
+            }
+        }
+        drawIntersections(g2d, viewport, intersections);
+    }
+
+    /**
+     * Returns the number of function evaluations of this renderer so far.
+     */
+    public long getEvaluationCount() {
+        return sampler.getEvaluationCount();
+    }
+
+    /**
+     * Returns the number of polyline points this renderer has drawn so far.
+     */
+    public long getDrawnPointCount() {
+        return drawnPointCount;
+    }
+
+    public void clearBackground(Graphics2D g2d, Viewport viewport) {
+        g2d.setColor(BACKGROUND_COLOR);
+        g2d.fillRect(0, 0, viewport.width, viewport.height);
+    }
+
+    public void drawAxes(Graphics2D g2d, Viewport viewport) {
+        Vector2D zero = viewport.toScreenCoordinates(new Vector2D(0,0));
+        g2d.setColor(Color.WHITE);
+        g2d.setStroke(THIN_STROKE);
+        g2d.drawLine(0, (int)zero.y, viewport.width, (int)zero.y);
+        g2d.drawLine((int)zero.x, 0, (int)zero.x, viewport.height);
+    }
+
+    public void drawGrid(Graphics2D g2d, Viewport viewport) {
+        double step = viewport.gridStep();
+        double scale = viewport.scale;
+        int width = viewport.width;
+        int height = viewport.height;
+        g2d.setColor(new Color(200, 200, 200, 40));
+
+        for (double x = step * Math.floor((-viewport.offsetX - width / (2.0 * scale)) / step); x <= -viewport.offsetX + width / (2.0 * scale); x += step) {
+            Vector2D screenPoint = viewport.toScreenCoordinates(new Vector2D(x,0));
+            int screenX = (int) screenPoint.x;
+            g2d.drawLine(screenX, 0, screenX, height);
+        }
+
+        for (double y = step * Math.floor((-viewport.offsetY - height / (2.0 * scale)) / step); y <= -viewport.offsetY + height / (2.0 * scale); y += step) {
+            Vector2D screenPoint = viewport.toScreenCoordinates(new Vector2D(0,y));
+            int screenY = (int) screenPoint.y;
+            g2d.drawLine(0, screenY, width, screenY);
+        }
+    }
+
+    public void drawFunction(Graphics2D g2d, Viewport viewport, ParametricFunction function, Color colour) {
+        int numSamples = sampler.sample(function, viewport.minX(), viewport.maxX(), viewport.width, 0, viewport.height,
+                viewport.zeroX(), viewport.zeroY(), viewport.scale);
+        drawPolyline(g2d, sampler.getX(), sampler.getY(), numSamples, colour);
+    }
+
+    /**
+     * Draws the function into a tile whose top left corner lies at (originX, originY) in pixels relative to the
+     * world origin, see TileCache. The curve is sampled a few pixels beyond the tile so that strokes crossing its
+     * border are complete.
+     */
+    public void drawFunctionTile(Graphics2D g2d, ParametricFunction function, Color colour,
+                                 double originX, double originY, int size, double scale) {
+        int numSamples = sampler.sample(function, (originX - TILE_MARGIN) / scale, (originX + size + TILE_MARGIN) / scale,
+                size + 2 * TILE_MARGIN, -TILE_MARGIN, size + TILE_MARGIN, -originX, -originY, scale);
+        drawPolyline(g2d, sampler.getX(), sampler.getY(), numSamples, colour);
+    }
+
+    private void drawPolyline(Graphics2D g2d, double[] x, double[] y, int count, Color colour) {
+        if (count < 2) {
+            return;
+        }
+        drawnPointCount += count;
+        Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, count);
+        path.moveTo(x[0], y[0]);
+        for (int i = 1; i < count; i++) {
+            path.lineTo(x[i], y[i]);
+        }
+
+        g2d.setStroke(CURVE_STROKE);
+        g2d.setColor(colour);
+        g2d.draw(path);
+    }
+
+    public void drawLabelsAndScales(Graphics2D g2d, Viewport viewport) {
+        double step = viewport.gridStep();
+        double scale = viewport.scale;
+        int width = viewport.width;
+        int height = viewport.height;
+        g2d.setColor(Color.WHITE);
+        g2d.setStroke(THIN_STROKE);
+        g2d.setFont(LABEL_FONT);
+        int tickSize = 3;
+        Vector2D zeroPoint = viewport.toScreenCoordinates(new Vector2D(0,0));
+
+        for (double x = step * Math.floor((-viewport.offsetX - width / (2.0 * scale)) / step); x <= -viewport.offsetX + width / (2.0 * scale); x += step) {
+            Vector2D screenPoint = viewport.toScreenCoordinates(new Vector2D(x,0));
+            g2d.drawLine((int) screenPoint.x, (int) zeroPoint.y - tickSize, (int) screenPoint.x, (int) zeroPoint.y + tickSize);
+            String label = String.format("%.2f", x);
+            int textOffset = (x < 0) ? -2 - g2d.getFontMetrics().stringWidth(label) : 2;
+            g2d.drawString(label, (int) screenPoint.x + textOffset, (int) zeroPoint.y - 2);
+        }
+
+        for (double y = step * Math.floor((-viewport.offsetY - height / (2.0 * scale)) / step); y <= -viewport.offsetY + height / (2.0 * scale); y += step) {
+            Vector2D screenPoint = viewport.toScreenCoordinates(new Vector2D(0,y));
+            g2d.drawLine((int) zeroPoint.x - tickSize, (int) screenPoint.y, (int) zeroPoint.x + tickSize, (int) screenPoint.y);
+            String label = String.format("%.2f", y);
+            int textOffset = (y < 0) ? g2d.getFontMetrics().getAscent() + 2 : -2;
+            g2d.drawString(label, (int) zeroPoint.x + 2, (int) screenPoint.y + textOffset);
+        }
+    }
+
+    /**
+     * Draws the density grid as pixels in the colour whose opacity grows with the logarithm of the number of samples.
+     * Every visible bin adds its count to the pixels it covers, or to the pixel of its corner when it is smaller than
+     * a pixel, so the work is bounded by the number of bins plus the number of pixels.
+     */
+    public void drawDensity(Graphics2D g2d, Viewport viewport, DensityGrid grid, Color colour) {
+        int width = viewport.width;
+        int height = viewport.height;
+        if (densityPixels.length < width * height) {
+            densityPixels = new long[width * height];
+        } else {
+            Arrays.fill(densityPixels, 0, width * height, 0);
+        }
+
+        int[] left = new int[grid.columns];
+        int[] right = new int[grid.columns];
+        for (int column = 0; column < grid.columns; column++) {
+            left[column] = toPixel(viewport.zeroX() + (grid.minX + column * grid.binWidth()) * viewport.scale, width);
+            right[column] = Math.max(left[column] + 1,
+                    toPixel(viewport.zeroX() + (grid.minX + (column + 1) * grid.binWidth()) * viewport.scale, width));
+        }
+        long maxCount = 0;
+        for (int row = 0; row < grid.rows; row++) {
+            int top = toPixel(viewport.zeroY() - (grid.minY + (row + 1) * grid.binHeight()) * viewport.scale, height);
+            int bottom = Math.max(top + 1,
+                    toPixel(viewport.zeroY() - (grid.minY + row * grid.binHeight()) * viewport.scale, height));
+            if (bottom <= 0 || top >= height) {
+                continue;
+            }
+            for (int column = 0; column < grid.columns; column++) {
+                int count = grid.count(column, row);
+                if (count == 0 || right[column] <= 0 || left[column] >= width) {
+                    continue;
+                }
+                for (int y = Math.max(0, top); y < Math.min(height, bottom); y++) {
+                    for (int x = Math.max(0, left[column]); x < Math.min(width, right[column]); x++) {
+                        long value = densityPixels[y * width + x] += count;
+                        maxCount = Math.max(maxCount, value);
+                    }
+                }
+            }
+        }
+        if (maxCount == 0) {
+            return;
+        }
+
+        if (densityImage == null || densityImage.getWidth() != width || densityImage.getHeight() != height) {
+            densityImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        int[] argb = ((DataBufferInt) densityImage.getRaster().getDataBuffer()).getData();
+        int rgb = colour.getRGB() & 0xFFFFFF;
+        // Single samples stay visible, the densest pixels become opaque. The alpha of small counts is tabulated.
+        double logMax = Math.log1p(maxCount);
+        int[] alphas = new int[(int) Math.min(maxCount + 1, 1 << 16)];
+        for (int value = 1; value < alphas.length; value++) {
+            alphas[value] = 48 + (int) (207 * Math.log1p(value) / logMax);
+        }
+        for (int i = 0; i < width * height; i++) {
+            long value = densityPixels[i];
+            int alpha = value < alphas.length ? alphas[(int) value] : 48 + (int) (207 * Math.log1p(value) / logMax);
+            argb[i] = alpha << 24 | rgb;
+        }
+        g2d.drawImage(densityImage, 0, 0, null);
+    }
+
+    /**
+     * Rounds a screen coordinate down, clamped to [-1, size] so that far off-screen bins cannot overflow.
+     */
+    private static int toPixel(double coordinate, int size) {
+        return (int) Math.floor(Math.max(-1, Math.min(size, coordinate)));
+    }
+
+    /**
+     * Marks the roots with filled and the extreme points with hollow dots in the colour of the function.
+     */
+    public void drawRootsAndExtremePoints(Graphics2D g2d, Viewport viewport, PolynomialFunction function, Color colour) {
+        g2d.setColor(colour);
+        g2d.setStroke(THIN_STROKE);
+        for (PolynomialRoot root : function.getRoots()) {
+            Vector2D screenPoint = viewport.toScreenCoordinates(new Vector2D(root.x, 0));
+            g2d.fillOval((int) screenPoint.x - 3, (int) screenPoint.y - 3, 6, 6);
+        }
+        for (ExtremePoint extremePoint : function.getExtremePoints()) {
+            Vector2D screenPoint = viewport.toScreenCoordinates(new Vector2D(extremePoint.x, extremePoint.y));
+            g2d.drawOval((int) screenPoint.x - 4, (int) screenPoint.y - 4, 8, 8);
+        }
+    }
+
+    public void drawIntersections(Graphics2D g2d, Viewport viewport, List<Vector2D> intersections) {
+        g2d.setColor(Color.YELLOW);
+        for (Vector2D intersection : intersections) {
+            Vector2D screenPoint = viewport.toScreenCoordinates(intersection);
+            g2d.fillOval((int) screenPoint.x - 3, (int) screenPoint.y - 3, 6, 6);
+        }
+    }
+}
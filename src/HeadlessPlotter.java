@@ -0,0 +1,272 @@
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders plots to PNG or SVG files without a display, using the same GraphRenderer as the GraphPanel.
+ * Plots are rendered in parallel on a fixed pool of workers that each keep their own renderer and image buffer.
+ *
+ * <pre>
+ * java -cp polynomial-visualizer.jar HeadlessPlotter [-threads N] [-size 800x600] [-window -10,10,-6,6] -o plot.svg "x^2-1" "2x+1"
+ * java -cp polynomial-visualizer.jar HeadlessPlotter [-threads N] -batch plots.txt
+ * </pre>
+ * Every line of a batch file describes one plot as {@code output | size | window | polynomial; polynomial...},
+ * size and window may be left empty for the defaults. Empty lines and lines starting with # are skipped.
+ */
+public class HeadlessPlotter implements AutoCloseable {
+    /**
+     * One plot: the polynomials, the world window that has to be visible, the image size and the output file,
+     * whose extension selects PNG or SVG.
+     */
+    public static class Plot {
+        public final List<String> polynomials;
+        public final double minX;
+        public final double maxX;
+        public final double minY;
+        public final double maxY;
+        public final int width;
+        public final int height;
+        public final Path output;
+
+        public Plot(List<String> polynomials, double minX, double maxX, double minY, double maxY, int width, int height, Path output) {
+            if (!(maxX > minX) || !(maxY > minY) || width <= 0 || height <= 0) {
+                throw new IllegalArgumentException("Invalid window or size for " + output);
+            }
+            this.polynomials = List.copyOf(polynomials);
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.width = width;
+            this.height = height;
+            this.output = output;
+        }
+
+        public boolean isSvg() {
+            return output.getFileName().toString().toLowerCase().endsWith(".svg");
+        }
+
+        /**
+         * Fits the window into the image with equal scales on both axes, so one of the ranges may show more.
+         */
+        public Viewport viewport() {
+            double scale = Math.min(width / (maxX - minX), height / (maxY - minY));
+            return new Viewport(width, height, new Vector2D(-(minX + maxX) / 2, -(minY + maxY) / 2), scale);
+        }
+    }
+
+    private static final int DEFAULT_WIDTH = 800;
+    private static final int DEFAULT_HEIGHT = 600;
+    private static final double[] DEFAULT_WINDOW = {-8, 8, -6, 6};
+
+    private final ExecutorService workers;
+    private final ThreadLocal<GraphRenderer> renderers = ThreadLocal.withInitial(GraphRenderer::new);
+    private final ThreadLocal<BufferedImage> images = new ThreadLocal<>();
+
+    public HeadlessPlotter(int threads) {
+        AtomicInteger workerCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "plot-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Renders the plot on the worker pool and completes with its output file.
+     */
+    public CompletableFuture<Path> submit(Plot plot) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                write(plot);
+                return plot.output;
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not write " + plot.output, e);
+            }
+        }, workers);
+    }
+
+    private void write(Plot plot) throws IOException {
+        Path parent = plot.output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (plot.isSvg()) {
+            Files.writeString(plot.output, renderSvg(plot), StandardCharsets.UTF_8);
+        } else {
+            ImageIO.write(renderImage(plot), "png", plot.output.toFile());
+        }
+    }
+
+    /**
+     * Renders the plot into the image buffer of the calling thread, which is reused by its next plot.
+     */
+    public BufferedImage renderImage(Plot plot) {
+        BufferedImage image = images.get();
+        if (image == null || image.getWidth() != plot.width || image.getHeight() != plot.height) {
+            image = new BufferedImage(plot.width, plot.height, BufferedImage.TYPE_INT_RGB);
+            images.set(image);
+        }
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            draw(g2d, plot);
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
+    public String renderSvg(Plot plot) {
+        SvgGraphics2D g2d = new SvgGraphics2D(plot.width, plot.height);
+        draw(g2d, plot);
+        return g2d.toSvg();
+    }
+
+    private void draw(Graphics2D g2d, Plot plot) {
+        Viewport viewport = plot.viewport();
+        double minT = viewport.minX();
+        double maxT = viewport.maxX();
+
+        FunctionRegistry registry = new FunctionRegistry();
+        for (String polynomial : plot.polynomials) {
+            registry.add(new PolynomialFunction(polynomial, minT, maxT));
+        }
+        List<FunctionEntry> functions = registry.getEntries();
+        List<Vector2D> intersections = new ArrayList<>();
+        for (int j = 1; j < functions.size(); j++) {
+            for (int i = 0; i < j; i++) {
+                for (Vector2D intersection : registry.getIntersections(functions.get(i), functions.get(j))) {
+                    if (intersection.x >= minT && intersection.x <= maxT) {
+                        intersections.add(intersection);
+                    }
+                }
+            }
+        }
+
+        renderers.get().drawFrame(g2d, viewport, functions, intersections);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        String size = "";
+        String window = "";
+        Path output = null;
+        Path batch = null;
+        List<String> polynomials = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-threads" -> threads = Integer.parseInt(argument(args, ++i));
+                case "-size" -> size = argument(args, ++i);
+                case "-window" -> window = argument(args, ++i);
+                case "-o" -> output = Path.of(argument(args, ++i));
+                case "-batch" -> batch = Path.of(argument(args, ++i));
+                default -> polynomials.add(args[i]);
+            }
+        }
+
+        List<Plot> plots = new ArrayList<>();
+        if (batch != null) {
+            List<String> lines = Files.readAllLines(batch, StandardCharsets.UTF_8);
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i).strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    plots.add(parsePlot(line));
+                } catch (IllegalArgumentException e) {
+                    System.err.println(batch + ":" + (i + 1) + ": " + e.getMessage());
+                }
+            }
+        } else if (output != null && !polynomials.isEmpty()) {
+            plots.add(createPlot(output, size, window, polynomials));
+        } else {
+            System.err.println("Usage: HeadlessPlotter [-threads N] [-size WxH] [-window minX,maxX,minY,maxY] -o FILE.png|FILE.svg POLYNOMIAL...");
+            System.err.println("       HeadlessPlotter [-threads N] -batch FILE");
+            System.exit(2);
+            return;
+        }
+
+        int failures = 0;
+        try (HeadlessPlotter plotter = new HeadlessPlotter(threads)) {
+            List<CompletableFuture<Path>> results = new ArrayList<>();
+            for (Plot plot : plots) {
+                results.add(plotter.submit(plot));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).join();
+                } catch (RuntimeException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println(plots.get(i).output + ": " + cause.getMessage());
+                    failures++;
+                }
+            }
+        }
+        System.out.println("Rendered " + (plots.size() - failures) + " of " + plots.size() + " plots");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static String argument(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static Plot parsePlot(String line) {
+        String[] fields = line.split("\\|", -1);
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("Expected output | size | window | polynomials");
+        }
+        List<String> polynomials = new ArrayList<>();
+        for (String polynomial : fields[3].split(";")) {
+            if (!polynomial.isBlank()) {
+                polynomials.add(polynomial.strip());
+            }
+        }
+        return createPlot(Path.of(fields[0].strip()), fields[1].strip(), fields[2].strip(), polynomials);
+    }
+
+    private static Plot createPlot(Path output, String size, String window, List<String> polynomials) {
+        int width = DEFAULT_WIDTH;
+        int height = DEFAULT_HEIGHT;
+        if (!size.isEmpty()) {
+            String[] dimensions = size.toLowerCase().split("x");
+            if (dimensions.length != 2) {
+                throw new IllegalArgumentException("Invalid size: " + size);
+            }
+            width = Integer.parseInt(dimensions[0].strip());
+            height = Integer.parseInt(dimensions[1].strip());
+        }
+        double[] bounds = DEFAULT_WINDOW.clone();
+        if (!window.isEmpty()) {
+            String[] values = window.split(",");
+            if (values.length != 4) {
+                throw new IllegalArgumentException("Invalid window: " + window);
+            }
+            for (int i = 0; i < 4; i++) {
+                bounds[i] = Double.parseDouble(values[i].strip());
+            }
+        }
+        return new Plot(polynomials, bounds[0], bounds[1], bounds[2], bounds[3], width, height, output);
+    }
+}
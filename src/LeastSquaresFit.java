@@ -0,0 +1,190 @@
+/**
+ * Streaming least-squares fit of a polynomial to x/y samples. The samples are added one by one into the normal
+ * equations, which only take O(degree^2) memory however many samples there are, and fits of separate chunks can be
+ * merged by adding their equations. To keep the equations well conditioned the polynomial is fitted in the
+ * Chebyshev basis over x scaled to u in [-1, 1], which has to be known in advance. The result stays a polynomial in
+ * u composed with the scaling, as expanding it in powers of x cancels away every digit for data far from the origin.
+ */
+public class LeastSquaresFit {
+    public static final int MAX_DEGREE = 20;
+
+    private final int degree;
+    private final double center;
+    private final double halfWidth;
+    // Upper triangle of the Gram matrix of the basis and the right-hand side
+    private final double[][] gram;
+    private final double[] moments;
+    private final double[] basis;
+    private long count = 0;
+
+    /**
+     * @param minX smallest x of the samples that will be added
+     * @param maxX largest x of the samples that will be added
+     */
+    public LeastSquaresFit(int degree, double minX, double maxX) {
+        if (degree < 0 || degree > MAX_DEGREE) {
+            throw new IllegalArgumentException("The degree must be between 0 and " + MAX_DEGREE + ": " + degree);
+        }
+        this.degree = degree;
+        this.center = (minX + maxX) / 2;
+        this.halfWidth = maxX > minX ? (maxX - minX) / 2 : 1;
+        this.gram = new double[degree + 1][degree + 1];
+        this.moments = new double[degree + 1];
+        this.basis = new double[degree + 1];
+    }
+
+    public void add(double x, double y) {
+        double u = (x - center) / halfWidth;
+        basis[0] = 1;
+        if (degree > 0) {
+            basis[1] = u;
+        }
+        for (int k = 2; k <= degree; k++) {
+            basis[k] = 2 * u * basis[k - 1] - basis[k - 2];
+        }
+        for (int i = 0; i <= degree; i++) {
+            double bi = basis[i];
+            double[] row = gram[i];
+            for (int j = i; j <= degree; j++) {
+                row[j] += bi * basis[j];
+            }
+            moments[i] += bi * y;
+        }
+        count++;
+    }
+
+    /**
+     * Adds the samples of another fit with the same degree and x-range to this one and returns this fit.
+     */
+    public LeastSquaresFit merge(LeastSquaresFit other) {
+        if (other.degree != degree || other.center != center || other.halfWidth != halfWidth) {
+            throw new IllegalArgumentException("Fits with different degrees or ranges cannot be merged");
+        }
+        for (int i = 0; i <= degree; i++) {
+            for (int j = i; j <= degree; j++) {
+                gram[i][j] += other.gram[i][j];
+            }
+            moments[i] += other.moments[i];
+        }
+        count += other.count;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Solves the normal equations and returns the fitted polynomial as p(u) composed with u = (x - center) /
+     * halfWidth. It is parsed from an expression with all digits, so a saved workspace reopens the same function.
+     */
+    public PolynomialFunction solve() {
+        String polynomial = "(" + termsString(toMonomials(solveChebyshev())) + ")";
+        if (center != 0 || halfWidth != 1) {
+            polynomial += "\u2218(" + termsString(Polynomial.of(-center / halfWidth, 1 / halfWidth)) + ")";
+        }
+        return new PolynomialFunction(polynomial);
+    }
+
+    /**
+     * Cholesky decomposition of the Gram matrix followed by forward and back substitution.
+     */
+    private double[] solveChebyshev() {
+        int n = degree + 1;
+        double[][] factor = new double[n][n];
+        double trace = 0;
+        for (int i = 0; i < n; i++) {
+            trace += gram[i][i];
+        }
+        for (int j = 0; j < n; j++) {
+            double diagonal = gram[j][j];
+            for (int k = 0; k < j; k++) {
+                diagonal -= factor[j][k] * factor[j][k];
+            }
+            // A vanishing pivot means the samples do not determine all coefficients, e.g. too few distinct x
+            if (!(diagonal > 1e-13 * trace)) {
+                throw new IllegalArgumentException("The samples do not determine a polynomial of degree " + degree);
+            }
+            factor[j][j] = Math.sqrt(diagonal);
+            for (int i = j + 1; i < n; i++) {
+                double value = gram[j][i];
+                for (int k = 0; k < j; k++) {
+                    value -= factor[i][k] * factor[j][k];
+                }
+                factor[i][j] = value / factor[j][j];
+            }
+        }
+
+        double[] z = new double[n];
+        for (int i = 0; i < n; i++) {
+            double value = moments[i];
+            for (int k = 0; k < i; k++) {
+                value -= factor[i][k] * z[k];
+            }
+            z[i] = value / factor[i][i];
+        }
+        double[] coefficients = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double value = z[i];
+            for (int k = i + 1; k < n; k++) {
+                value -= factor[k][i] * coefficients[k];
+            }
+            coefficients[i] = value / factor[i][i];
+        }
+        return coefficients;
+    }
+
+    /**
+     * Expands sum c_k T_k(u) into coefficients of powers of u, using the recurrence of the Chebyshev polynomials on
+     * coefficient arrays. On [-1, 1] the coefficients grow at most like 2^degree, so little is lost.
+     */
+    private Polynomial toMonomials(double[] chebyshev) {
+        int n = degree + 1;
+        double[] result = new double[n];
+        double[] previous = new double[n];
+        double[] current = new double[n];
+        // T_0 = 1 and T_1 = u
+        previous[0] = 1;
+        result[0] = chebyshev[0];
+        if (degree > 0) {
+            current[1] = 1;
+            result[1] = chebyshev[1];
+        }
+        for (int k = 2; k <= degree; k++) {
+            // T_k = 2 u T_k-1 - T_k-2
+            double[] next = new double[n];
+            for (int i = 0; i < k; i++) {
+                next[i + 1] = 2 * current[i];
+            }
+            for (int i = 0; i < n; i++) {
+                next[i] -= previous[i];
+                result[i] += chebyshev[k] * next[i];
+            }
+            previous = current;
+            current = next;
+        }
+        return Polynomial.of(result);
+    }
+
+    /**
+     * Writes the polynomial in the syntax of PolynomialParser, with the shortest decimals that parse back exactly.
+     */
+    private static String termsString(Polynomial polynomial) {
+        StringBuilder sb = new StringBuilder();
+        int[] exponents = polynomial.termExponents();
+        double[] coefficients = polynomial.termCoefficients();
+        for (int i = exponents.length - 1; i >= 0; i--) {
+            double coefficient = coefficients[i];
+            if (sb.length() > 0) {
+                sb.append(coefficient < 0 ? " - " : " + ");
+            } else if (coefficient < 0) {
+                sb.append("-");
+            }
+            sb.append(Math.abs(coefficient));
+            if (exponents[i] > 0) {
+                sb.append(exponents[i] == 1 ? "x" : "x^" + exponents[i]);
+            }
+        }
+        return sb.length() == 0 ? "0" : sb.toString();
+    }
+}
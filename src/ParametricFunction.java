@@ -3,5 +3,41 @@ import java.util.List;
 public interface ParametricFunction {
     Vector2D evaluate(double t);
 
-}
+    /**
+     * Evaluates the function at the first count parameters of t and writes the points into x and y.
+     * Implementations should override this to avoid allocating a Vector2D per sample.
+     */
+    default void evaluate(double[] t, double[] x, double[] y, int count) {
+        for (int i = 0; i < count; i++) {
+            Vector2D point = evaluate(t[i]);
+            x[i] = point.x;
+            y[i] = point.y;
+        }
+    }
+
+    /**
+     * Evaluates the function at count evenly spaced parameters start, start + step, ... into x and y.
+     */
+    default void evaluateRange(double start, double step, int count, double[] x, double[] y) {
+        for (int i = 0; i < count; i++) {
+            Vector2D point = evaluate(start + i * step);
+            x[i] = point.x;
+            y[i] = point.y;
+        }
+    }
 
+    /**
+     * Tells the function how many pixels per world unit it is about to be drawn at, so approximating
+     * implementations can choose their accuracy.
+     */
+    default void setResolution(double scale) {
+    }
+
+    /**
+     * Writes a lower and an upper bound of y for t in [minT, maxT] into bounds[0] and bounds[1] and returns true,
+     * or returns false if the function cannot bound its values. Samplers use this to skip ranges off the screen.
+     */
+    default boolean boundY(double minT, double maxT, double[] bounds) {
+        return false;
+    }
+}
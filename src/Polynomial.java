@@ -0,0 +1,719 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable real polynomial. Depending on how many of its coefficients are non-zero it is stored either densely as a
+ * coefficient array or sparsely as ascending exponent/coefficient pairs, so {@code x^100000 + 1} only stores two
+ * terms. Sparse polynomials are evaluated term by term with exponentiation by squaring for the gaps between
+ * exponents. All operations return new instances, so polynomials can be shared freely between threads.
+ */
+public final class Polynomial implements PolynomialEvaluator {
+    public static final Polynomial ZERO = new Polynomial(new double[]{0}, null, null, 0);
+    public static final Polynomial ONE = new Polynomial(new double[]{1}, null, null, 0);
+    // Below this fill ratio (non-zero terms per degree) the sparse layout is used
+    private static final double SPARSE_FILL_RATIO = 0.25;
+    private static final int SPARSE_MIN_DEGREE = 32;
+    // Dense products use schoolbook multiplication while the shorter operand has fewer coefficients than this,
+    // Karatsuba while it has fewer than FFT_THRESHOLD and an FFT above
+    private static final int KARATSUBA_THRESHOLD = 64;
+    private static final int FFT_THRESHOLD = 512;
+
+    private final double[] dense;
+    private final int[] exponents;
+    private final double[] coefficients;
+    private final int degree;
+
+    private Polynomial(double[] dense, int[] exponents, double[] coefficients, int degree) {
+        this.dense = dense;
+        this.exponents = exponents;
+        this.coefficients = coefficients;
+        this.degree = degree;
+    }
+
+    /**
+     * Creates a polynomial from its coefficients, where index i holds the coefficient of x^i.
+     */
+    public static Polynomial of(double... coefficients) {
+        int count = 0;
+        for (double coefficient : coefficients) {
+            if (coefficient != 0) {
+                count++;
+            }
+        }
+        int[] termExponents = new int[count];
+        double[] termCoefficients = new double[count];
+        int k = 0;
+        for (int i = 0; i < coefficients.length; i++) {
+            if (coefficients[i] != 0) {
+                termExponents[k] = i;
+                termCoefficients[k] = coefficients[i];
+                k++;
+            }
+        }
+        return create(termExponents, termCoefficients, count);
+    }
+
+    /**
+     * Creates a polynomial from the first count terms, which may be unordered and contain the same exponent twice.
+     */
+    public static Polynomial fromTerms(int[] exponents, double[] coefficients, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(exponents[a], exponents[b]));
+
+        int[] termExponents = new int[count];
+        double[] termCoefficients = new double[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            int exponent = exponents[order[i]];
+            if (exponent < 0) {
+                throw new IllegalArgumentException("Negative exponent: " + exponent);
+            }
+            if (n > 0 && termExponents[n - 1] == exponent) {
+                termCoefficients[n - 1] += coefficients[order[i]];
+            } else {
+                termExponents[n] = exponent;
+                termCoefficients[n] = coefficients[order[i]];
+                n++;
+            }
+        }
+        return create(termExponents, termCoefficients, n);
+    }
+
+    /**
+     * Creates a polynomial from terms with strictly ascending exponents, like those of a stored polynomial, without
+     * sorting them. The arrays are taken over.
+     */
+    static Polynomial fromSortedTerms(int[] exponents, double[] coefficients) {
+        for (int i = 0; i < exponents.length; i++) {
+            if (exponents[i] < 0 || i > 0 && exponents[i] <= exponents[i - 1]) {
+                throw new IllegalArgumentException("Exponents are not strictly ascending at term " + i);
+            }
+        }
+        return create(exponents, coefficients, exponents.length);
+    }
+
+    /**
+     * Picks the layout for ascending, distinct terms. Terms with a zero coefficient are dropped.
+     */
+    private static Polynomial create(int[] termExponents, double[] termCoefficients, int count) {
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (termCoefficients[i] != 0) {
+                termExponents[n] = termExponents[i];
+                termCoefficients[n] = termCoefficients[i];
+                n++;
+            }
+        }
+        if (n == 0) {
+            return ZERO;
+        }
+
+        int degree = termExponents[n - 1];
+        if (degree >= SPARSE_MIN_DEGREE && n < SPARSE_FILL_RATIO * (degree + 1)) {
+            return new Polynomial(null, Arrays.copyOf(termExponents, n), Arrays.copyOf(termCoefficients, n), degree);
+        }
+        double[] dense = new double[degree + 1];
+        for (int i = 0; i < n; i++) {
+            dense[termExponents[i]] = termCoefficients[i];
+        }
+        return new Polynomial(dense, null, null, degree);
+    }
+
+    public int degree() {
+        return degree;
+    }
+
+    public boolean isSparse() {
+        return dense == null;
+    }
+
+    public int termCount() {
+        if (isSparse()) {
+            return exponents.length;
+        }
+        int count = 0;
+        for (double coefficient : dense) {
+            if (coefficient != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public double coefficient(int exponent) {
+        if (!isSparse()) {
+            return exponent < dense.length ? dense[exponent] : 0;
+        }
+        int index = Arrays.binarySearch(exponents, exponent);
+        return index >= 0 ? coefficients[index] : 0;
+    }
+
+    /**
+     * Returns a new coefficient array of length degree + 1, where index i holds the coefficient of x^i.
+     */
+    public double[] toDenseArray() {
+        if (!isSparse()) {
+            return dense.clone();
+        }
+        double[] result = new double[degree + 1];
+        for (int i = 0; i < exponents.length; i++) {
+            result[exponents[i]] = coefficients[i];
+        }
+        return result;
+    }
+
+    @Override
+    public double evaluate(double x) {
+        if (!isSparse()) {
+            // Horner scheme
+            double result = 0;
+            for (int i = degree; i >= 0; i--) {
+                result = result * x + dense[i];
+            }
+            return result;
+        }
+
+        // Horner scheme over the non-zero terms, bridging the gaps between exponents with powers of x
+        int last = exponents.length - 1;
+        double result = coefficients[last];
+        for (int i = last - 1; i >= 0; i--) {
+            result = result * pow(x, exponents[i + 1] - exponents[i]) + coefficients[i];
+        }
+        return result * pow(x, exponents[0]);
+    }
+
+    /**
+     * Evaluates the polynomial at the first count values of x and writes the results into y.
+     */
+    @Override
+    public void evaluate(double[] x, double[] y, int count) {
+        if (isSparse()) {
+            for (int j = 0; j < count; j++) {
+                y[j] = evaluate(x[j]);
+            }
+            return;
+        }
+
+        // Horner scheme with the samples in the inner loop, so the JIT can vectorize it
+        Arrays.fill(y, 0, count, dense[degree]);
+        for (int i = degree - 1; i >= 0; i--) {
+            double coefficient = dense[i];
+            for (int j = 0; j < count; j++) {
+                y[j] = y[j] * x[j] + coefficient;
+            }
+        }
+    }
+
+    /**
+     * Evaluates with the compensated Horner scheme, see {@link PolynomialMath#evaluateCompensated}. Sparse
+     * polynomials are evaluated as usual, their few terms leave little room for cancellation in the scheme itself.
+     */
+    public double evaluateCompensated(double x) {
+        return isSparse() ? evaluate(x) : PolynomialMath.evaluateCompensated(dense, x);
+    }
+
+    public void evaluateCompensated(double[] x, double[] y, int count) {
+        for (int j = 0; j < count; j++) {
+            y[j] = evaluateCompensated(x[j]);
+        }
+    }
+
+    /**
+     * Bounds the values for x in [lo, hi] with interval arithmetic and writes the lower and upper bound into
+     * bounds[0] and bounds[1]. The bounds enclose the true range, but are wider the wider the interval is.
+     */
+    public void evaluateInterval(double lo, double hi, double[] bounds) {
+        if (!isSparse()) {
+            // Horner scheme over intervals
+            double low = dense[degree];
+            double high = low;
+            for (int i = degree - 1; i >= 0; i--) {
+                double a = low * lo;
+                double b = low * hi;
+                double c = high * lo;
+                double d = high * hi;
+                low = Math.min(Math.min(a, b), Math.min(c, d)) + dense[i];
+                high = Math.max(Math.max(a, b), Math.max(c, d)) + dense[i];
+            }
+            bounds[0] = low;
+            bounds[1] = high;
+            return;
+        }
+
+        int last = exponents.length - 1;
+        double low = coefficients[last];
+        double high = low;
+        for (int i = last; i >= 0; i--) {
+            int gap = i > 0 ? exponents[i] - exponents[i - 1] : exponents[0];
+            powInterval(lo, hi, gap, bounds);
+            double a = low * bounds[0];
+            double b = low * bounds[1];
+            double c = high * bounds[0];
+            double d = high * bounds[1];
+            double coefficient = i > 0 ? coefficients[i - 1] : 0;
+            low = Math.min(Math.min(a, b), Math.min(c, d)) + coefficient;
+            high = Math.max(Math.max(a, b), Math.max(c, d)) + coefficient;
+        }
+        bounds[0] = low;
+        bounds[1] = high;
+    }
+
+    /**
+     * Range of x^n for x in [lo, hi].
+     */
+    static void powInterval(double lo, double hi, int n, double[] bounds) {
+        double low = pow(lo, n);
+        double high = pow(hi, n);
+        if (n % 2 == 1 || lo >= 0) {
+            bounds[0] = low;
+            bounds[1] = high;
+        } else if (hi <= 0) {
+            bounds[0] = high;
+            bounds[1] = low;
+        } else {
+            bounds[0] = 0;
+            bounds[1] = Math.max(low, high);
+        }
+    }
+
+    public Polynomial derivative() {
+        if (degree == 0) {
+            return ZERO;
+        }
+        if (!isSparse()) {
+            double[] result = new double[degree];
+            for (int i = 1; i <= degree; i++) {
+                result[i - 1] = i * dense[i];
+            }
+            return of(result);
+        }
+
+        int offset = exponents[0] == 0 ? 1 : 0;
+        int n = exponents.length - offset;
+        int[] termExponents = new int[n];
+        double[] termCoefficients = new double[n];
+        for (int i = 0; i < n; i++) {
+            termExponents[i] = exponents[i + offset] - 1;
+            termCoefficients[i] = exponents[i + offset] * coefficients[i + offset];
+        }
+        return create(termExponents, termCoefficients, n);
+    }
+
+    public Polynomial add(Polynomial other) {
+        return combine(other, 1.0);
+    }
+
+    public Polynomial subtract(Polynomial other) {
+        return combine(other, -1.0);
+    }
+
+    private Polynomial combine(Polynomial other, double factor) {
+        if (!isSparse() && !other.isSparse()) {
+            double[] result = Arrays.copyOf(dense, Math.max(dense.length, other.dense.length));
+            for (int i = 0; i < other.dense.length; i++) {
+                result[i] += factor * other.dense[i];
+            }
+            return of(result);
+        }
+
+        int[] ownExponents = termExponents();
+        double[] ownCoefficients = termCoefficients();
+        int[] otherExponents = other.termExponents();
+        double[] otherCoefficients = other.termCoefficients();
+        int[] resultExponents = new int[ownExponents.length + otherExponents.length];
+        double[] resultCoefficients = new double[resultExponents.length];
+
+        // Merge of the two ascending term lists
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < ownExponents.length || j < otherExponents.length) {
+            if (j == otherExponents.length || (i < ownExponents.length && ownExponents[i] < otherExponents[j])) {
+                resultExponents[n] = ownExponents[i];
+                resultCoefficients[n++] = ownCoefficients[i++];
+            } else if (i == ownExponents.length || otherExponents[j] < ownExponents[i]) {
+                resultExponents[n] = otherExponents[j];
+                resultCoefficients[n++] = factor * otherCoefficients[j++];
+            } else {
+                resultExponents[n] = ownExponents[i];
+                resultCoefficients[n++] = ownCoefficients[i++] + factor * otherCoefficients[j++];
+            }
+        }
+        return create(resultExponents, resultCoefficients, n);
+    }
+
+    /**
+     * Returns the product of both polynomials. Sparse operands are multiplied term by term, dense ones by schoolbook
+     * multiplication, Karatsuba or an FFT depending on their lengths. The FFT bounds the error of every result
+     * coefficient relative to the largest ones, so small coefficients of products with a wide range of magnitudes
+     * are less accurate than with the other two.
+     */
+    public Polynomial multiply(Polynomial other) {
+        if (this == ZERO || other == ZERO) {
+            return ZERO;
+        }
+        int resultDegree = Math.addExact(degree, other.degree);
+        if (!isSparse() && !other.isSparse()) {
+            return of(multiply(dense, other.dense));
+        }
+
+        int[] ownExponents = termExponents();
+        double[] ownCoefficients = termCoefficients();
+        int[] otherExponents = other.termExponents();
+        double[] otherCoefficients = other.termCoefficients();
+        long count = (long) ownExponents.length * otherExponents.length;
+        if (count > resultDegree + 1L) {
+            // More products than coefficients, so they are summed up in a dense array
+            double[] result = new double[resultDegree + 1];
+            for (int i = 0; i < ownExponents.length; i++) {
+                for (int j = 0; j < otherExponents.length; j++) {
+                    result[ownExponents[i] + otherExponents[j]] += ownCoefficients[i] * otherCoefficients[j];
+                }
+            }
+            return of(result);
+        }
+        int[] resultExponents = new int[(int) count];
+        double[] resultCoefficients = new double[(int) count];
+        int n = 0;
+        for (int i = 0; i < ownExponents.length; i++) {
+            for (int j = 0; j < otherExponents.length; j++) {
+                resultExponents[n] = ownExponents[i] + otherExponents[j];
+                resultCoefficients[n++] = ownCoefficients[i] * otherCoefficients[j];
+            }
+        }
+        return fromTerms(resultExponents, resultCoefficients, n);
+    }
+
+    /**
+     * Returns this polynomial raised to a non-negative power, by repeated squaring.
+     */
+    public Polynomial pow(int exponent) {
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Negative exponent: " + exponent);
+        }
+        if (exponent == 0) {
+            return ONE;
+        }
+        int resultDegree = Math.multiplyExact(degree, exponent);
+        int[] termExponents = termExponents();
+        if (termExponents.length == 1) {
+            return fromTerms(new int[]{resultDegree}, new double[]{Math.pow(termCoefficients()[0], exponent)}, 1);
+        }
+
+        Polynomial result = ONE;
+        Polynomial base = this;
+        while (true) {
+            if ((exponent & 1) != 0) {
+                result = result.multiply(base);
+            }
+            exponent >>= 1;
+            if (exponent == 0) {
+                return result;
+            }
+            base = base.multiply(base);
+        }
+    }
+
+    /**
+     * Returns the composition p(inner(x)), expanded with the Horner scheme over the terms of this polynomial.
+     */
+    public Polynomial compose(Polynomial inner) {
+        if (this == ZERO) {
+            return ZERO;
+        }
+        Math.multiplyExact(degree, inner.degree);
+        int[] termExponents = termExponents();
+        double[] termCoefficients = termCoefficients();
+        Map<Integer, Polynomial> powers = new HashMap<>();
+        int last = termExponents.length - 1;
+        Polynomial result = of(termCoefficients[last]);
+        for (int i = last - 1; i >= 0; i--) {
+            Polynomial power = powers.computeIfAbsent(termExponents[i + 1] - termExponents[i], inner::pow);
+            result = result.multiply(power).add(of(termCoefficients[i]));
+        }
+        return termExponents[0] == 0 ? result : result.multiply(inner.pow(termExponents[0]));
+    }
+
+    public boolean isFinite() {
+        for (double coefficient : isSparse() ? coefficients : dense) {
+            if (!Double.isFinite(coefficient)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates the polynomial with the absolute values of its coefficients at |x|. This bounds the intermediate
+     * results of the Horner scheme and with them its rounding errors.
+     */
+    double evaluateMagnitude(double x) {
+        double absX = Math.abs(x);
+        if (!isSparse()) {
+            double result = 0;
+            for (int i = degree; i >= 0; i--) {
+                result = result * absX + Math.abs(dense[i]);
+            }
+            return result;
+        }
+        int last = exponents.length - 1;
+        double result = Math.abs(coefficients[last]);
+        for (int i = last - 1; i >= 0; i--) {
+            result = result * pow(absX, exponents[i + 1] - exponents[i]) + Math.abs(coefficients[i]);
+        }
+        return result * pow(absX, exponents[0]);
+    }
+
+    /**
+     * Number of floating point operations of {@link #evaluate(double)}.
+     */
+    int evaluationCost() {
+        if (!isSparse()) {
+            return 2 * degree;
+        }
+        int cost = 0;
+        for (int i = 0; i < exponents.length; i++) {
+            int gap = i > 0 ? exponents[i] - exponents[i - 1] : exponents[0];
+            cost += 2 + 2 * (32 - Integer.numberOfLeadingZeros(gap));
+        }
+        return cost;
+    }
+
+    /**
+     * Product of two coefficient arrays.
+     */
+    static double[] multiply(double[] a, double[] b) {
+        if (a.length < b.length) {
+            double[] swap = a;
+            a = b;
+            b = swap;
+        }
+        if (b.length < KARATSUBA_THRESHOLD) {
+            return multiplySchoolbook(a, b);
+        }
+        if (b.length >= FFT_THRESHOLD) {
+            return multiplyFft(a, b);
+        }
+        int n = a.length + b.length - 1;
+        // Karatsuba works on operands of equal length, so the longer one is cut into blocks of the shorter one
+        double[] result = new double[n];
+        for (int start = 0; start < a.length; start += b.length) {
+            double[] product = multiplyKaratsuba(Arrays.copyOfRange(a, start, start + b.length), b);
+            for (int i = 0; i < product.length && start + i < n; i++) {
+                result[start + i] += product[i];
+            }
+        }
+        return result;
+    }
+
+    private static double[] multiplySchoolbook(double[] a, double[] b) {
+        double[] result = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            double coefficient = a[i];
+            for (int j = 0; j < b.length; j++) {
+                result[i + j] += coefficient * b[j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Karatsuba multiplication of two arrays of the same length: with a = a0 + x^h a1 and b = b0 + x^h b1 the middle
+     * part a0 b1 + a1 b0 is (a0 + a1)(b0 + b1) - a0 b0 - a1 b1, three half-size products instead of four.
+     */
+    private static double[] multiplyKaratsuba(double[] a, double[] b) {
+        int n = a.length;
+        if (n < KARATSUBA_THRESHOLD) {
+            return multiplySchoolbook(a, b);
+        }
+        int half = n / 2;
+        int upper = n - half;
+        double[] low = multiplyKaratsuba(Arrays.copyOf(a, half), Arrays.copyOf(b, half));
+        double[] high = multiplyKaratsuba(Arrays.copyOfRange(a, half, n), Arrays.copyOfRange(b, half, n));
+        double[] aSum = Arrays.copyOfRange(a, half, n);
+        double[] bSum = Arrays.copyOfRange(b, half, n);
+        for (int i = 0; i < half; i++) {
+            aSum[i] += a[i];
+            bSum[i] += b[i];
+        }
+        double[] middle = multiplyKaratsuba(aSum, bSum);
+
+        double[] result = new double[2 * n - 1];
+        for (int i = 0; i < low.length; i++) {
+            result[i] += low[i];
+            middle[i] -= low[i];
+        }
+        for (int i = 0; i < high.length; i++) {
+            result[2 * half + i] += high[i];
+            middle[i] -= high[i];
+        }
+        for (int i = 0; i < 2 * upper - 1; i++) {
+            result[half + i] += middle[i];
+        }
+        return result;
+    }
+
+    /**
+     * Multiplies with a complex FFT in O(n log n). Both operands go through a single transform as the real and
+     * imaginary part of one signal and are separated again by the symmetry of transforms of real signals.
+     */
+    private static double[] multiplyFft(double[] a, double[] b) {
+        int n = a.length + b.length - 1;
+        int size = Integer.highestOneBit(n - 1) << 1;
+        double[] re = Arrays.copyOf(a, size);
+        double[] im = Arrays.copyOf(b, size);
+        double[] cos = new double[size / 2];
+        double[] sin = new double[size / 2];
+        for (int k = 0; k < size / 2; k++) {
+            cos[k] = Math.cos(2 * Math.PI * k / size);
+            sin[k] = Math.sin(2 * Math.PI * k / size);
+        }
+        fft(re, im, cos, sin, -1);
+
+        double[] productRe = new double[size];
+        double[] productIm = new double[size];
+        for (int k = 0; k < size; k++) {
+            int j = (size - k) & (size - 1);
+            double aRe = (re[k] + re[j]) / 2;
+            double aIm = (im[k] - im[j]) / 2;
+            double bRe = (im[k] + im[j]) / 2;
+            double bIm = (re[j] - re[k]) / 2;
+            productRe[k] = aRe * bRe - aIm * bIm;
+            productIm[k] = aRe * bIm + aIm * bRe;
+        }
+        fft(productRe, productIm, cos, sin, 1);
+
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = productRe[i] / size;
+        }
+        return result;
+    }
+
+    /**
+     * In-place iterative radix-2 FFT, with direction -1 for the forward and 1 for the unscaled inverse transform.
+     */
+    private static void fft(double[] re, double[] im, double[] cos, double[] sin, int direction) {
+        int n = re.length;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double swap = re[i];
+                re[i] = re[j];
+                re[j] = swap;
+                swap = im[i];
+                im[i] = im[j];
+                im[j] = swap;
+            }
+        }
+        for (int length = 2; length <= n; length <<= 1) {
+            int half = length / 2;
+            int step = n / length;
+            for (int start = 0; start < n; start += length) {
+                for (int k = 0; k < half; k++) {
+                    double wRe = cos[k * step];
+                    double wIm = direction * sin[k * step];
+                    int u = start + k;
+                    int v = u + half;
+                    double xRe = re[v] * wRe - im[v] * wIm;
+                    double xIm = re[v] * wIm + im[v] * wRe;
+                    re[v] = re[u] - xRe;
+                    im[v] = im[u] - xIm;
+                    re[u] += xRe;
+                    im[u] += xIm;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ascending exponents of the non-zero terms. Sparse polynomials return their own array, which must not be changed.
+     */
+    int[] termExponents() {
+        if (isSparse()) {
+            return exponents;
+        }
+        int[] result = new int[termCount()];
+        int k = 0;
+        for (int i = 0; i < dense.length; i++) {
+            if (dense[i] != 0) {
+                result[k++] = i;
+            }
+        }
+        return result;
+    }
+
+    double[] termCoefficients() {
+        if (isSparse()) {
+            return coefficients;
+        }
+        double[] result = new double[termCount()];
+        int k = 0;
+        for (double coefficient : dense) {
+            if (coefficient != 0) {
+                result[k++] = coefficient;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * x^n by repeated squaring, in O(log n) multiplications.
+     */
+    static double pow(double x, int n) {
+        double result = 1.0;
+        double base = x;
+        while (n > 0) {
+            if ((n & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+            n >>= 1;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Polynomial polynomial)) {
+            return false;
+        }
+        return degree == polynomial.degree && Arrays.equals(termExponents(), polynomial.termExponents())
+                && Arrays.equals(termCoefficients(), polynomial.termCoefficients());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(termExponents()) + Arrays.hashCode(termCoefficients());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        int[] termExponents = termExponents();
+        double[] termCoefficients = termCoefficients();
+        for (int i = termExponents.length - 1; i >= 0; i--) {
+            double coefficient = termCoefficients[i];
+            if (coefficient > 0 && sb.length() > 0) {
+                sb.append("+");
+            }
+            if (termExponents[i] > 0) {
+                sb.append(String.format("%.2fx^%d", coefficient, termExponents[i]));
+            } else {
+                sb.append(String.format("%.2f", coefficient));
+            }
+        }
+        return sb.length() == 0 ? "0.00" : sb.toString();
+    }
+}
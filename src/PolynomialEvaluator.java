@@ -0,0 +1,12 @@
+/**
+ * Evaluates one fixed polynomial. Implemented by Polynomial itself and by the specialized classes generated by
+ * EvaluatorCompiler.
+ */
+public interface PolynomialEvaluator {
+    double evaluate(double x);
+
+    /**
+     * Evaluates the polynomial at the first count values of x and writes the results into y.
+     */
+    void evaluate(double[] x, double[] y, int count);
+}
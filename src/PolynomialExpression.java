@@ -0,0 +1,860 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Polynomial built from sums, products, powers and compositions of sums of terms, as parsed from expressions like
+ * {@code (x-1)(x-2)(x-3)} or {@code (1+x)^500}. The expanded Polynomial is computed once on demand.
+ * Evaluating the factored form directly is often cheaper and avoids the cancellation between the large coefficients
+ * of the expansion, which may not even fit into a double; {@link #prefersFactoredEvaluation()} picks the form.
+ * For the same reason roots and extreme points are found on the structure, see {@link #findRoots}.
+ * Expressions are immutable like the polynomials they are built from.
+ */
+public abstract class PolynomialExpression implements PolynomialEvaluator {
+    public static final PolynomialExpression ZERO = new Terms(Polynomial.ZERO);
+    private static final Polynomial X = Polynomial.of(0, 1);
+    private static final double UNIT_ROUNDOFF = Math.ulp(1.0) / 2;
+    // The accuracy of both forms is compared at +-r/2^k for k up to this, where r bounds the magnitude of the roots
+    private static final int PROBE_OCTAVES = 24;
+    // A root of the expansion of a sum must be confirmed by the factored form within this relative distance
+    private static final double MAX_CONFIRMATION_DISTANCE = 1e-6;
+
+    private final long degree;
+    private final long termBound;
+    private volatile Polynomial expanded;
+
+    private PolynomialExpression(long degree, double termEstimate) {
+        this.degree = degree;
+        this.termBound = (long) Math.min(termEstimate, degree + 1.0);
+    }
+
+    public static PolynomialExpression of(Polynomial polynomial) {
+        return polynomial == Polynomial.ZERO ? ZERO : new Terms(polynomial);
+    }
+
+    public static PolynomialExpression sum(PolynomialExpression first, PolynomialExpression second) {
+        Polynomial terms = Polynomial.ZERO;
+        List<PolynomialExpression> summands = new ArrayList<>();
+        for (PolynomialExpression expression : List.of(first, second)) {
+            for (PolynomialExpression summand : expression instanceof Sum sum ? sum.summands : List.of(expression)) {
+                if (summand instanceof Terms leaf) {
+                    terms = terms.add(leaf.polynomial);
+                } else {
+                    summands.add(summand);
+                }
+            }
+        }
+        if (terms != Polynomial.ZERO) {
+            summands.add(0, of(terms));
+        }
+        if (summands.size() <= 1) {
+            return summands.isEmpty() ? ZERO : summands.get(0);
+        }
+        return new Sum(summands);
+    }
+
+    public static PolynomialExpression product(PolynomialExpression first, PolynomialExpression second) {
+        return product(List.of(first, second));
+    }
+
+    /**
+     * Multiplies the factors. Constant and single-term factors are gathered into one monomial, which is multiplied
+     * into the first sum of terms, as that is exact up to one rounding per coefficient.
+     */
+    public static PolynomialExpression product(List<PolynomialExpression> factors) {
+        Polynomial monomial = Polynomial.ONE;
+        List<PolynomialExpression> result = new ArrayList<>();
+        for (PolynomialExpression expression : factors) {
+            for (PolynomialExpression factor : expression instanceof Product product ? product.factors : List.of(expression)) {
+                if (factor == ZERO) {
+                    return ZERO;
+                }
+                if (factor instanceof Terms leaf && leaf.polynomial.termCount() == 1) {
+                    monomial = monomial.multiply(leaf.polynomial);
+                } else {
+                    result.add(factor);
+                }
+            }
+        }
+        if (result.isEmpty()) {
+            return of(monomial);
+        }
+        if (!monomial.equals(Polynomial.ONE)) {
+            int index = 0;
+            while (index < result.size() && !(result.get(index) instanceof Terms)) {
+                index++;
+            }
+            if (index < result.size()) {
+                result.set(index, of(((Terms) result.get(index)).polynomial.multiply(monomial)));
+            } else {
+                result.add(0, of(monomial));
+            }
+        }
+        return result.size() == 1 ? result.get(0) : new Product(result);
+    }
+
+    public static PolynomialExpression power(PolynomialExpression base, int exponent) {
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Negative exponent: " + exponent);
+        }
+        if (exponent == 0) {
+            return of(Polynomial.ONE);
+        }
+        if (exponent == 1) {
+            return base;
+        }
+        if (base instanceof Terms leaf && leaf.polynomial.termCount() <= 1) {
+            return of(leaf.polynomial.pow(exponent));
+        }
+        if (base instanceof Power power) {
+            return power(power.base, Math.multiplyExact(power.exponent, exponent));
+        }
+        return new Power(base, exponent);
+    }
+
+    /**
+     * Returns outer(inner(x)).
+     */
+    public static PolynomialExpression compose(PolynomialExpression outer, PolynomialExpression inner) {
+        if (inner instanceof Terms leaf && leaf.polynomial.equals(X)) {
+            return outer;
+        }
+        if (outer instanceof Terms leaf) {
+            if (leaf.polynomial.degree() == 0) {
+                return outer;
+            }
+            if (leaf.polynomial.equals(X)) {
+                return inner;
+            }
+        }
+        return new Composition(outer, inner);
+    }
+
+    /**
+     * Degree of the expanded polynomial, or an upper bound for it if leading terms cancel.
+     */
+    public long degree() {
+        return degree;
+    }
+
+    /**
+     * Upper bound for the number of terms of the expanded polynomial.
+     */
+    public long termBound() {
+        return termBound;
+    }
+
+    /**
+     * Returns true unless the expression is a plain sum of terms.
+     */
+    public boolean isFactored() {
+        return !(this instanceof Terms);
+    }
+
+    /**
+     * Returns the expanded polynomial, which is computed on the first call.
+     */
+    public Polynomial expand() {
+        Polynomial result = expanded;
+        if (result == null) {
+            result = computeExpansion();
+            expanded = result;
+        }
+        return result;
+    }
+
+    /**
+     * Decides whether plotting should evaluate this expression instead of its expansion: always if the expansion
+     * overflows, otherwise if the running error bounds of the factored form are smaller at points spread over the
+     * scales of the roots, or if it is cheaper and its bounds are at most twice as large.
+     */
+    public boolean prefersFactoredEvaluation() {
+        if (!isFactored()) {
+            return false;
+        }
+        Polynomial polynomial = expand();
+        if (!polynomial.isFinite()) {
+            return true;
+        }
+        PolynomialExpression flat = of(polynomial);
+        double radius = rootRadius(polynomial);
+        double[] error = new double[1];
+        double factoredError = 0;
+        double expandedError = 0;
+        for (int k = 0; k <= PROBE_OCTAVES; k++) {
+            for (int sign = -1; sign <= 1; sign += 2) {
+                double x = sign * Math.scalb(radius, -k);
+                factoredError += relativeError(evaluateWithError(x, error), error[0]);
+                expandedError += relativeError(flat.evaluateWithError(x, error), error[0]);
+            }
+        }
+        boolean cheaper = evaluationCost() <= flat.evaluationCost();
+        return factoredError < expandedError || (cheaper && factoredError <= 2 * expandedError);
+    }
+
+    /**
+     * Relative error, capped at 1 so that overflows and values lost in rounding errors count the same.
+     */
+    private static double relativeError(double value, double error) {
+        if (error == 0) {
+            return 0;
+        }
+        double relative = error / Math.abs(value);
+        return relative < 1 ? relative : 1;
+    }
+
+    /**
+     * Fujiwara's bound 2 max |c_(n-k) / c_n|^(1/k) for the magnitude of the roots, with the last ratio halved.
+     */
+    private static double rootRadius(Polynomial polynomial) {
+        int[] exponents = polynomial.termExponents();
+        double[] coefficients = polynomial.termCoefficients();
+        int n = polynomial.degree();
+        double leading = Math.log(Math.abs(coefficients[coefficients.length - 1]));
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < exponents.length - 1; i++) {
+            int k = n - exponents[i];
+            double ratio = Math.log(Math.abs(coefficients[i])) - leading - (exponents[i] == 0 ? Math.log(2) : 0);
+            max = Math.max(max, ratio / k);
+        }
+        return max == Double.NEGATIVE_INFINITY ? 1 : 2 * Math.exp(max);
+    }
+
+    @Override
+    public double evaluate(double x) {
+        return evaluate(x, false);
+    }
+
+    @Override
+    public void evaluate(double[] x, double[] y, int count) {
+        evaluate(x, y, count, false);
+    }
+
+    /**
+     * Evaluates with the sums of terms evaluated by the compensated Horner scheme.
+     */
+    public double evaluateCompensated(double x) {
+        return evaluate(x, true);
+    }
+
+    public void evaluateCompensated(double[] x, double[] y, int count) {
+        evaluate(x, y, count, true);
+    }
+
+    /**
+     * Real roots in [start, end] with their multiplicities, found on the structure of the expression: the roots of a
+     * product are those of its factors, a power multiplies their multiplicities and a composition solves inner = r
+     * for every root r of the outer polynomial in the range of the inner one. Sums are solved through their
+     * expansion, keeping only roots that the factored form confirms.
+     *
+     * @throws ArithmeticException if the roots cannot be determined, for example because the expansion of a sum
+     *                             overflows or gives a root that the factored form does not confirm
+     */
+    public List<PolynomialRoot> findRoots(double start, double end, EvaluationMode mode) {
+        List<PolynomialRoot> roots = new ArrayList<>();
+        collectRoots(start, end, mode, 1, roots);
+        roots.sort(Comparator.comparingDouble(root -> root.x));
+        // Factors may share a root, like (x-1)(x^2-1)
+        List<PolynomialRoot> merged = new ArrayList<>();
+        for (PolynomialRoot root : roots) {
+            PolynomialRoot last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && root.x - last.x <= 4 * Math.ulp(Math.max(Math.abs(root.x), Math.abs(last.x)))) {
+                merged.set(merged.size() - 1, new PolynomialRoot(last.x, last.multiplicity + root.multiplicity));
+            } else {
+                merged.add(root);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Minima, maxima and inflection points in [start, end]. If all roots are real, like those of products of linear
+     * factors, the critical points are the multiple roots and, by Rolle's theorem, one point between every two
+     * neighbouring roots r_i, found by bisecting the logarithmic derivative sum m_i / (x - r_i), which cannot
+     * overflow. Otherwise they are the roots of the derivative expression, classified by the sign of the derivative
+     * between them.
+     *
+     * @throws ArithmeticException if the critical points cannot be determined, see {@link #findRoots}
+     */
+    public List<ExtremePoint> findExtremePoints(double start, double end, EvaluationMode mode) {
+        boolean compensated = mode == EvaluationMode.COMPENSATED;
+        List<PolynomialRoot> roots;
+        try {
+            roots = findRoots(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, mode);
+        } catch (ArithmeticException e) {
+            roots = List.of();
+        }
+        long realRoots = roots.stream().mapToLong(root -> root.multiplicity).sum();
+        List<ExtremePoint> extremePoints = realRoots >= 2 && realRoots == degree()
+                ? rolleExtremePoints(roots, compensated) : null;
+        if (extremePoints == null) {
+            extremePoints = derivativeExtremePoints(mode);
+        }
+        List<ExtremePoint> result = new ArrayList<>();
+        for (ExtremePoint extremePoint : extremePoints) {
+            if (extremePoint.x >= start && extremePoint.x <= end) {
+                result.add(extremePoint);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Extreme points of a polynomial with only real roots, or null if its sign beyond the roots cannot be evaluated.
+     */
+    private List<ExtremePoint> rolleExtremePoints(List<PolynomialRoot> roots, boolean compensated) {
+        double largest = roots.get(roots.size() - 1).x;
+        // The sign right of the current root, starting right of all of them
+        double sign = Math.signum(evaluate(largest + Math.max(1, Math.abs(largest)), compensated));
+        if (!(sign != 0)) {
+            return null;
+        }
+        List<ExtremePoint> result = new ArrayList<>();
+        for (int i = roots.size() - 1; i >= 0; i--) {
+            PolynomialRoot root = roots.get(i);
+            if (root.multiplicity >= 2) {
+                ExtremePoint.Type type = root.multiplicity % 2 == 1 ? ExtremePoint.Type.INFLECTION
+                        : sign > 0 ? ExtremePoint.Type.MINIMUM : ExtremePoint.Type.MAXIMUM;
+                result.add(new ExtremePoint(root.x, 0, type));
+            }
+            if (root.multiplicity % 2 == 1) {
+                sign = -sign;
+            }
+            if (i > 0) {
+                double x = logarithmicDerivativeRoot(roots, i - 1);
+                result.add(new ExtremePoint(x, evaluate(x, compensated),
+                        sign > 0 ? ExtremePoint.Type.MAXIMUM : ExtremePoint.Type.MINIMUM));
+            }
+        }
+        result.sort(Comparator.comparingDouble(extremePoint -> extremePoint.x));
+        return result;
+    }
+
+    /**
+     * Bisects sum m_j / (x - r_j), which falls from +infinity to -infinity between the roots i and i + 1.
+     */
+    private static double logarithmicDerivativeRoot(List<PolynomialRoot> roots, int i) {
+        double low = roots.get(i).x;
+        double high = roots.get(i + 1).x;
+        while (true) {
+            double middle = low + (high - low) / 2;
+            if (middle <= low || middle >= high) {
+                return middle;
+            }
+            double slope = 0;
+            for (PolynomialRoot root : roots) {
+                slope += root.multiplicity / (middle - root.x);
+            }
+            if (slope == 0) {
+                return middle;
+            }
+            if (slope > 0) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+    }
+
+    private List<ExtremePoint> derivativeExtremePoints(EvaluationMode mode) {
+        boolean compensated = mode == EvaluationMode.COMPENSATED;
+        PolynomialExpression derivative = derivative();
+        List<PolynomialRoot> criticalPoints = derivative.findRoots(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, mode);
+        List<ExtremePoint> result = new ArrayList<>();
+        for (int i = 0; i < criticalPoints.size(); i++) {
+            double x = criticalPoints.get(i).x;
+            // The derivative keeps its sign up to the neighbouring critical points
+            double left = i > 0 ? (criticalPoints.get(i - 1).x + x) / 2 : x - Math.max(1, Math.abs(x));
+            double right = i < criticalPoints.size() - 1 ? (x + criticalPoints.get(i + 1).x) / 2 : x + Math.max(1, Math.abs(x));
+            double leftSlope = derivative.evaluate(left, compensated);
+            double rightSlope = derivative.evaluate(right, compensated);
+            ExtremePoint.Type type;
+            if (leftSlope < 0 && rightSlope > 0) {
+                type = ExtremePoint.Type.MINIMUM;
+            } else if (leftSlope > 0 && rightSlope < 0) {
+                type = ExtremePoint.Type.MAXIMUM;
+            } else {
+                type = ExtremePoint.Type.INFLECTION;
+            }
+            result.add(new ExtremePoint(x, evaluate(x, compensated), type));
+        }
+        return result;
+    }
+
+    /**
+     * Adds the roots in [start, end] with their multiplicities times the given one.
+     */
+    abstract void collectRoots(double start, double end, EvaluationMode mode, int multiplicity, List<PolynomialRoot> roots);
+
+    /**
+     * Adds the roots of the expansion, which must all be confirmed by this expression.
+     */
+    final void collectExpandedRoots(double start, double end, EvaluationMode mode, int multiplicity,
+                                    List<PolynomialRoot> roots) {
+        PolynomialRootFinder.Factorization factorization = PolynomialRootFinder.factor(expand(), mode);
+        if (factorization.unavailableReason() != null) {
+            throw new ArithmeticException(factorization.unavailableReason());
+        }
+        for (PolynomialRoot root : factorization.findRoots(start, end)) {
+            double x = isFactored() ? confirmRoot(root.x, root.multiplicity, mode == EvaluationMode.COMPENSATED) : root.x;
+            if (Double.isNaN(x)) {
+                throw new ArithmeticException("the expansion is too inaccurate");
+            }
+            roots.add(new PolynomialRoot(x, root.multiplicity * multiplicity));
+        }
+    }
+
+    /**
+     * Checks a root of the expansion on this expression: the values at x -+ d must differ in sign for an odd
+     * multiplicity and agree in sign and exceed the value at x for an even one, for the smallest d at which they
+     * are larger than their rounding errors. Odd roots are then refined by bisection. Returns NaN for a root that
+     * is not confirmed within {@value #MAX_CONFIRMATION_DISTANCE} relative to its magnitude.
+     */
+    private double confirmRoot(double x, int multiplicity, boolean compensated) {
+        double[] error = new double[1];
+        double value = evaluateWithError(x, error);
+        double valueError = error[0];
+        double scale = Math.max(1, Math.abs(x));
+        for (double distance = 4 * UNIT_ROUNDOFF; distance <= MAX_CONFIRMATION_DISTANCE; distance *= 2) {
+            double left = evaluateWithError(x - distance * scale, error);
+            boolean leftSignificant = Math.abs(left) > error[0];
+            double right = evaluateWithError(x + distance * scale, error);
+            if (!leftSignificant || !(Math.abs(right) > error[0])) {
+                continue;
+            }
+            boolean crossing = Math.signum(left) != Math.signum(right);
+            if (multiplicity % 2 == 1 && crossing) {
+                return bisect(x - distance * scale, x + distance * scale, Math.signum(left), compensated);
+            }
+            if (multiplicity % 2 == 0 && !crossing && Math.abs(value) <= Math.min(Math.abs(left), Math.abs(right))) {
+                return x;
+            }
+        }
+        return Math.abs(value) <= valueError ? x : Double.NaN;
+    }
+
+    private double bisect(double low, double high, double lowSign, boolean compensated) {
+        while (true) {
+            double middle = low + (high - low) / 2;
+            if (middle <= low || middle >= high) {
+                return middle;
+            }
+            double sign = Math.signum(evaluate(middle, compensated));
+            if (sign == 0) {
+                return middle;
+            }
+            if (sign == lowSign) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+    }
+
+    abstract Polynomial computeExpansion();
+
+    abstract double evaluate(double x, boolean compensated);
+
+    abstract void evaluate(double[] x, double[] y, int count, boolean compensated);
+
+    /**
+     * Bounds the values for x in [lo, hi] with interval arithmetic, see {@link Polynomial#evaluateInterval}.
+     */
+    public abstract void evaluateInterval(double lo, double hi, double[] bounds);
+
+    public abstract PolynomialExpression derivative();
+
+    /**
+     * Number of floating point operations of {@link #evaluate(double)}.
+     */
+    abstract int evaluationCost();
+
+    /**
+     * Evaluates at x and writes a first-order bound for the rounding error of the result into error[0].
+     */
+    abstract double evaluateWithError(double x, double[] error);
+
+    private static final class Terms extends PolynomialExpression {
+        final Polynomial polynomial;
+
+        Terms(Polynomial polynomial) {
+            super(polynomial.degree(), polynomial.termCount());
+            this.polynomial = polynomial;
+        }
+
+        @Override
+        Polynomial computeExpansion() {
+            return polynomial;
+        }
+
+        @Override
+        void collectRoots(double start, double end, EvaluationMode mode, int multiplicity, List<PolynomialRoot> roots) {
+            collectExpandedRoots(start, end, mode, multiplicity, roots);
+        }
+
+        @Override
+        double evaluate(double x, boolean compensated) {
+            return compensated ? polynomial.evaluateCompensated(x) : polynomial.evaluate(x);
+        }
+
+        @Override
+        void evaluate(double[] x, double[] y, int count, boolean compensated) {
+            if (compensated) {
+                polynomial.evaluateCompensated(x, y, count);
+            } else {
+                polynomial.evaluate(x, y, count);
+            }
+        }
+
+        @Override
+        public void evaluateInterval(double lo, double hi, double[] bounds) {
+            polynomial.evaluateInterval(lo, hi, bounds);
+        }
+
+        @Override
+        public PolynomialExpression derivative() {
+            return of(polynomial.derivative());
+        }
+
+        @Override
+        int evaluationCost() {
+            return polynomial.evaluationCost();
+        }
+
+        @Override
+        double evaluateWithError(double x, double[] error) {
+            // Every operation of the Horner scheme adds at most one rounding of the magnitude of its result
+            error[0] = polynomial.evaluationCost() * UNIT_ROUNDOFF * polynomial.evaluateMagnitude(x);
+            return polynomial.evaluate(x);
+        }
+    }
+
+    private static final class Sum extends PolynomialExpression {
+        final List<PolynomialExpression> summands;
+
+        Sum(List<PolynomialExpression> summands) {
+            super(summands.stream().mapToLong(PolynomialExpression::degree).max().orElse(0),
+                    summands.stream().mapToDouble(PolynomialExpression::termBound).sum());
+            this.summands = List.copyOf(summands);
+        }
+
+        @Override
+        Polynomial computeExpansion() {
+            Polynomial result = Polynomial.ZERO;
+            for (PolynomialExpression summand : summands) {
+                result = result.add(summand.expand());
+            }
+            return result;
+        }
+
+        @Override
+        void collectRoots(double start, double end, EvaluationMode mode, int multiplicity, List<PolynomialRoot> roots) {
+            collectExpandedRoots(start, end, mode, multiplicity, roots);
+        }
+
+        @Override
+        double evaluate(double x, boolean compensated) {
+            double result = 0;
+            for (PolynomialExpression summand : summands) {
+                result += summand.evaluate(x, compensated);
+            }
+            return result;
+        }
+
+        @Override
+        void evaluate(double[] x, double[] y, int count, boolean compensated) {
+            summands.get(0).evaluate(x, y, count, compensated);
+            double[] values = new double[count];
+            for (int i = 1; i < summands.size(); i++) {
+                summands.get(i).evaluate(x, values, count, compensated);
+                for (int j = 0; j < count; j++) {
+                    y[j] += values[j];
+                }
+            }
+        }
+
+        @Override
+        public void evaluateInterval(double lo, double hi, double[] bounds) {
+            double low = 0;
+            double high = 0;
+            for (PolynomialExpression summand : summands) {
+                summand.evaluateInterval(lo, hi, bounds);
+                low += bounds[0];
+                high += bounds[1];
+            }
+            bounds[0] = low;
+            bounds[1] = high;
+        }
+
+        @Override
+        public PolynomialExpression derivative() {
+            PolynomialExpression result = ZERO;
+            for (PolynomialExpression summand : summands) {
+                result = sum(result, summand.derivative());
+            }
+            return result;
+        }
+
+        @Override
+        int evaluationCost() {
+            return summands.stream().mapToInt(PolynomialExpression::evaluationCost).sum() + summands.size() - 1;
+        }
+
+        @Override
+        double evaluateWithError(double x, double[] error) {
+            double result = 0;
+            double bound = 0;
+            for (PolynomialExpression summand : summands) {
+                result += summand.evaluateWithError(x, error);
+                bound += error[0] + UNIT_ROUNDOFF * Math.abs(result);
+            }
+            error[0] = bound;
+            return result;
+        }
+    }
+
+    private static final class Product extends PolynomialExpression {
+        final List<PolynomialExpression> factors;
+
+        Product(List<PolynomialExpression> factors) {
+            super(factors.stream().mapToLong(PolynomialExpression::degree).sum(),
+                    factors.stream().mapToDouble(PolynomialExpression::termBound).reduce(1, (a, b) -> a * b));
+            this.factors = List.copyOf(factors);
+        }
+
+        @Override
+        Polynomial computeExpansion() {
+            return expandRange(0, factors.size());
+        }
+
+        @Override
+        void collectRoots(double start, double end, EvaluationMode mode, int multiplicity, List<PolynomialRoot> roots) {
+            for (PolynomialExpression factor : factors) {
+                factor.collectRoots(start, end, mode, multiplicity, roots);
+            }
+        }
+
+        /**
+         * Multiplies the factors as a balanced tree, so the large products are between operands of similar size,
+         * where the fast multiplication algorithms pay off.
+         */
+        private Polynomial expandRange(int from, int to) {
+            if (to - from == 1) {
+                return factors.get(from).expand();
+            }
+            int middle = (from + to) >>> 1;
+            return expandRange(from, middle).multiply(expandRange(middle, to));
+        }
+
+        @Override
+        double evaluate(double x, boolean compensated) {
+            double result = 1;
+            for (PolynomialExpression factor : factors) {
+                result *= factor.evaluate(x, compensated);
+            }
+            return result;
+        }
+
+        @Override
+        void evaluate(double[] x, double[] y, int count, boolean compensated) {
+            factors.get(0).evaluate(x, y, count, compensated);
+            double[] values = new double[count];
+            for (int i = 1; i < factors.size(); i++) {
+                factors.get(i).evaluate(x, values, count, compensated);
+                for (int j = 0; j < count; j++) {
+                    y[j] *= values[j];
+                }
+            }
+        }
+
+        @Override
+        public void evaluateInterval(double lo, double hi, double[] bounds) {
+            double low = 1;
+            double high = 1;
+            for (PolynomialExpression factor : factors) {
+                factor.evaluateInterval(lo, hi, bounds);
+                double a = low * bounds[0];
+                double b = low * bounds[1];
+                double c = high * bounds[0];
+                double d = high * bounds[1];
+                low = Math.min(Math.min(a, b), Math.min(c, d));
+                high = Math.max(Math.max(a, b), Math.max(c, d));
+            }
+            bounds[0] = low;
+            bounds[1] = high;
+        }
+
+        /**
+         * Product rule on the two halves of the factors, (ab)' = a'b + ab', which keeps the derivative of k factors
+         * at O(k log k) factors instead of the k^2 of differentiating one factor at a time.
+         */
+        @Override
+        public PolynomialExpression derivative() {
+            int middle = factors.size() / 2;
+            PolynomialExpression first = product(factors.subList(0, middle));
+            PolynomialExpression second = product(factors.subList(middle, factors.size()));
+            return sum(product(first.derivative(), second), product(first, second.derivative()));
+        }
+
+        @Override
+        int evaluationCost() {
+            return factors.stream().mapToInt(PolynomialExpression::evaluationCost).sum() + factors.size() - 1;
+        }
+
+        @Override
+        double evaluateWithError(double x, double[] error) {
+            double result = 1;
+            double bound = 0;
+            for (PolynomialExpression factor : factors) {
+                double value = factor.evaluateWithError(x, error);
+                bound = Math.abs(result) * error[0] + Math.abs(value) * bound + bound * error[0];
+                result *= value;
+                bound += UNIT_ROUNDOFF * Math.abs(result);
+            }
+            error[0] = bound;
+            return result;
+        }
+    }
+
+    private static final class Power extends PolynomialExpression {
+        final PolynomialExpression base;
+        final int exponent;
+
+        Power(PolynomialExpression base, int exponent) {
+            super(base.degree() * exponent, Math.pow(base.termBound(), exponent));
+            this.base = base;
+            this.exponent = exponent;
+        }
+
+        @Override
+        Polynomial computeExpansion() {
+            return base.expand().pow(exponent);
+        }
+
+        @Override
+        void collectRoots(double start, double end, EvaluationMode mode, int multiplicity, List<PolynomialRoot> roots) {
+            base.collectRoots(start, end, mode, Math.multiplyExact(multiplicity, exponent), roots);
+        }
+
+        @Override
+        double evaluate(double x, boolean compensated) {
+            return Polynomial.pow(base.evaluate(x, compensated), exponent);
+        }
+
+        @Override
+        void evaluate(double[] x, double[] y, int count, boolean compensated) {
+            base.evaluate(x, y, count, compensated);
+            for (int j = 0; j < count; j++) {
+                y[j] = Polynomial.pow(y[j], exponent);
+            }
+        }
+
+        @Override
+        public void evaluateInterval(double lo, double hi, double[] bounds) {
+            base.evaluateInterval(lo, hi, bounds);
+            Polynomial.powInterval(bounds[0], bounds[1], exponent, bounds);
+        }
+
+        @Override
+        public PolynomialExpression derivative() {
+            return product(List.of(of(Polynomial.of(exponent)), power(base, exponent - 1), base.derivative()));
+        }
+
+        @Override
+        int evaluationCost() {
+            return base.evaluationCost() + 2 * (32 - Integer.numberOfLeadingZeros(exponent));
+        }
+
+        @Override
+        double evaluateWithError(double x, double[] error) {
+            double value = base.evaluateWithError(x, error);
+            double magnitude = Polynomial.pow(Math.abs(value), exponent);
+            // The error of the base grows with the power, every multiplication of the squaring rounds once more
+            error[0] = Math.pow(Math.abs(value) + error[0], exponent) - magnitude
+                    + 2 * (32 - Integer.numberOfLeadingZeros(exponent)) * UNIT_ROUNDOFF * magnitude;
+            return Polynomial.pow(value, exponent);
+        }
+    }
+
+    private static final class Composition extends PolynomialExpression {
+        final PolynomialExpression outer;
+        final PolynomialExpression inner;
+        private volatile PolynomialExpression outerDerivative;
+
+        Composition(PolynomialExpression outer, PolynomialExpression inner) {
+            super(outer.degree() * inner.degree(), outer.termBound() * Math.pow(inner.termBound(), outer.degree()));
+            this.outer = outer;
+            this.inner = inner;
+        }
+
+        @Override
+        Polynomial computeExpansion() {
+            return outer.expand().compose(inner.expand());
+        }
+
+        @Override
+        void collectRoots(double start, double end, EvaluationMode mode, int multiplicity, List<PolynomialRoot> roots) {
+            double[] bounds = new double[2];
+            inner.evaluateInterval(start, end, bounds);
+            double low = bounds[0];
+            double high = bounds[1];
+            if (!(low <= high)) {
+                low = Double.NEGATIVE_INFINITY;
+                high = Double.POSITIVE_INFINITY;
+            }
+            // The interval bounds are rounded like any evaluation
+            double margin = 1e-12 * Math.max(Math.abs(low), Math.abs(high));
+            for (PolynomialRoot root : outer.findRoots(low - margin, high + margin, mode)) {
+                sum(inner, of(Polynomial.of(-root.x)))
+                        .collectRoots(start, end, mode, Math.multiplyExact(multiplicity, root.multiplicity), roots);
+            }
+        }
+
+        @Override
+        double evaluate(double x, boolean compensated) {
+            return outer.evaluate(inner.evaluate(x, compensated), compensated);
+        }
+
+        @Override
+        void evaluate(double[] x, double[] y, int count, boolean compensated) {
+            double[] values = new double[count];
+            inner.evaluate(x, values, count, compensated);
+            outer.evaluate(values, y, count, compensated);
+        }
+
+        @Override
+        public void evaluateInterval(double lo, double hi, double[] bounds) {
+            inner.evaluateInterval(lo, hi, bounds);
+            outer.evaluateInterval(bounds[0], bounds[1], bounds);
+        }
+
+        @Override
+        public PolynomialExpression derivative() {
+            return product(compose(outerDerivative(), inner), inner.derivative());
+        }
+
+        private PolynomialExpression outerDerivative() {
+            PolynomialExpression result = outerDerivative;
+            if (result == null) {
+                result = outer.derivative();
+                outerDerivative = result;
+            }
+            return result;
+        }
+
+        @Override
+        int evaluationCost() {
+            return outer.evaluationCost() + inner.evaluationCost();
+        }
+
+        @Override
+        double evaluateWithError(double x, double[] error) {
+            double value = inner.evaluateWithError(x, error);
+            double innerError = error[0];
+            double result = outer.evaluateWithError(value, error);
+            // To first order the error of the inner value is scaled by the slope of the outer polynomial
+            error[0] += Math.abs(outerDerivative().evaluate(value)) * innerError;
+            return result;
+        }
+    }
+}
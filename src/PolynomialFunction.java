@@ -1,168 +1,314 @@
-import java.util.regex.*;
-import java.util.Arrays;
 import java.util.*;
+import java.util.function.Supplier;
 
 public class PolynomialFunction implements ParametricFunction {
     public String functionString;
-    private double[] coefficients;
-    public List<Double> roots;
-    public List<Double> extremePoints;
-    private static final Pattern TERM_PATTERN = Pattern.compile("([-+]?\\s*\\d*\\.?\\d*(?:/\\d+)*)?x(\\^(-?\\d+))?|([-+]?\\s*\\d+(/\\d+)?)");
+    private volatile PolynomialExpression expression = PolynomialExpression.ZERO;
+    private volatile Polynomial polynomial = Polynomial.ZERO;
+    // The expression if it is evaluated in factored form, see PolynomialExpression#prefersFactoredEvaluation
+    private volatile PolynomialExpression factored = null;
+    // Specialized kernel of the polynomial or the factored expression for the standard evaluation mode, the kernel
+    // is compiled on the first evaluation so that functions which are never drawn do not pay for it
+    private volatile PolynomialEvaluator evaluator = Polynomial.ZERO;
+    private volatile List<PolynomialRoot> roots = List.of();
+    private volatile List<ExtremePoint> extremePoints = List.of();
+    private volatile String unavailableReason = null;
+    // Analysis that is only read on the first access to the roots or extreme points, see #setAnalysis(Supplier)
+    private volatile Supplier<FunctionAnalysis> pendingAnalysis = null;
+    private volatile boolean analysed = false;
+    private volatile EvaluationMode evaluationMode = EvaluationMode.STANDARD;
 
     public PolynomialFunction(String polynomialString, double start, double end) {
-        this.coefficients = new double[]{0};
+        this(polynomialString, start, end, EvaluationMode.STANDARD);
+    }
+
+    public PolynomialFunction(String polynomialString, double start, double end, EvaluationMode mode) {
+        this(polynomialString);
+        evaluationMode = mode;
+        calcRoots(start, end);
+        calcExtremePoints(start, end);
+        analysed = true;
+    }
+
+    /**
+     * Parses the polynomial without analysing it, the analysis is set later through {@link #setAnalysis}.
+     */
+    public PolynomialFunction(String polynomialString) {
         this.functionString = polynomialString;
         fromString(polynomialString);
-        calcRoots(start,end, 0.001);
-        calcExtremePoints(start,end, 0.001);
     }
 
-    public void fromString(String polynomial) {
-        if (polynomial == null || polynomial.isEmpty()) {
-            throw new IllegalArgumentException("Polynomial string cannot be null or empty");
-        }
+    /**
+     * Wraps a computed polynomial, for example a fit, without analysing it.
+     */
+    public PolynomialFunction(Polynomial polynomial) {
+        this(polynomial, polynomial.toString());
+    }
 
-        Matcher matcher = TERM_PATTERN.matcher(polynomial);
+    /**
+     * Wraps an already expanded polynomial under the string it was entered as, for example one read from a workspace.
+     */
+    public PolynomialFunction(Polynomial polynomial, String functionString) {
+        setExpression(PolynomialExpression.of(polynomial));
+        this.functionString = functionString;
+    }
 
-        while (matcher.find()) {
-            String coefStr = removeWhitespace(matcher.group(1));
-            String expStr = removeWhitespace(matcher.group(3));
-            String constantStr = removeWhitespace(matcher.group(4));
+    public void fromString(String polynomial) {
+        setExpression(PolynomialExpression.sum(expression, PolynomialParser.parseExpression(polynomial)));
+    }
 
-            double coef;
-            int exp;
+    private synchronized void setExpression(PolynomialExpression expression) {
+        this.expression = expression;
+        this.polynomial = expression.expand();
+        boolean factored = expression.prefersFactoredEvaluation();
+        this.factored = factored ? expression : null;
+        this.evaluator = factored ? expression : null;
+    }
 
-            if (!isNullOrEmpty(constantStr)) {
-                coef = parseFraction(constantStr);
-                exp = 0;
-            } else {
-                coef = 1.0;
-                if (!isNullOrEmpty(coefStr)) {
-                    coef = parseFractionOrSign(coefStr);
-                }
-                exp = isNullOrEmpty(expStr) ? 1 : Integer.parseInt(expStr);
-            }
+    private PolynomialEvaluator evaluator() {
+        PolynomialEvaluator evaluator = this.evaluator;
+        return evaluator != null ? evaluator : compileEvaluator();
+    }
 
-            extendCoefficientsArrayIfNeeded(exp);
-            this.coefficients[exp] += coef;
+    private synchronized PolynomialEvaluator compileEvaluator() {
+        if (evaluator == null) {
+            evaluator = EvaluatorCompiler.compile(polynomial);
         }
+        return evaluator;
     }
 
-    private String removeWhitespace(String str) {
-        return str == null ? null : str.trim();
+    public int degree() {
+        return polynomial.degree();
     }
 
-    private boolean isNullOrEmpty(String str) {
-        return str == null || str.isEmpty();
+    @Override
+    public Vector2D evaluate(double t) {
+        if (evaluationMode == EvaluationMode.COMPENSATED) {
+            PolynomialExpression factored = this.factored;
+            return new Vector2D(t, factored != null ? factored.evaluateCompensated(t) : polynomial.evaluateCompensated(t));
+        }
+        return new Vector2D(t, evaluator().evaluate(t));
     }
 
-    private double parseFractionOrSign(String str) {
-        if (str.equals("+")) {
-            return 1.0;
-        } else if (str.equals("-")) {
-            return -1.0;
-        }
-        return parseFraction(str);
+    @Override
+    public void evaluate(double[] t, double[] x, double[] y, int count) {
+        System.arraycopy(t, 0, x, 0, count);
+        evaluate(x, y, count);
     }
 
-    private void extendCoefficientsArrayIfNeeded(int exp) {
-        if (exp >= this.coefficients.length) {
-            this.coefficients = Arrays.copyOf(this.coefficients, exp + 1);
+    @Override
+    public void evaluateRange(double start, double step, int count, double[] x, double[] y) {
+        for (int i = 0; i < count; i++) {
+            x[i] = start + i * step;
         }
+        evaluate(x, y, count);
     }
 
-    private double parseFraction(String input) {
-        if (input.contains("/")) {
-            String[] fractionParts = input.split("/");
-            try {
-                return Double.parseDouble(fractionParts[0]) / Double.parseDouble(fractionParts[1]);
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid fraction: " + input);
+    private void evaluate(double[] x, double[] y, int count) {
+        if (evaluationMode == EvaluationMode.COMPENSATED) {
+            PolynomialExpression factored = this.factored;
+            if (factored != null) {
+                factored.evaluateCompensated(x, y, count);
+            } else {
+                polynomial.evaluateCompensated(x, y, count);
             }
         } else {
+            evaluator().evaluate(x, y, count);
+        }
+    }
+
+    @Override
+    public boolean boundY(double minT, double maxT, double[] bounds) {
+        // The factored form usually gives tighter bounds and the only finite ones if the expansion overflows
+        expression.evaluateInterval(minT, maxT, bounds);
+        return true;
+    }
+
+    public void derive() {
+        setExpression(expression.derivative());
+        functionString = polynomial.toString();
+    }
+
+    private void calcRoots(double start, double end) {
+        if (expression.isFactored()) {
             try {
-                return Double.parseDouble(input);
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid number: " + input);
+                roots = expression.findRoots(start, end, evaluationMode);
+            } catch (ArithmeticException e) {
+                roots = List.of();
+                unavailableReason = e.getMessage();
             }
+            return;
         }
+        PolynomialRootFinder.Factorization factorization = PolynomialRootFinder.factor(polynomial, evaluationMode);
+        roots = factorization.findRoots(start, end);
+        unavailableReason = factorization.unavailableReason();
     }
 
-    public int degree() {
-        for (int i = coefficients.length - 1; i >= 0; i--) {
-            double coefficient = coefficients[i];
-            if (coefficient != 0.0) {
-                return i;
+    public void calcExtremePoints(double start, double end) {
+        if (expression.isFactored()) {
+            try {
+                extremePoints = expression.findExtremePoints(start, end, evaluationMode);
+            } catch (ArithmeticException e) {
+                extremePoints = List.of();
+                if (unavailableReason == null) {
+                    unavailableReason = e.getMessage();
+                }
             }
+            return;
+        }
+        PolynomialRootFinder.Factorization factorization =
+                PolynomialRootFinder.factor(polynomial.derivative(), evaluationMode);
+        extremePoints = classifyCriticalPoints(polynomial, factorization.findRoots(start, end), evaluationMode);
+        if (unavailableReason == null) {
+            unavailableReason = factorization.unavailableReason();
         }
-        return 0;
     }
 
-    @Override
-    public Vector2D evaluate(double t) {
-        // Horner scheme
-        double result = 0;
-        for (int i = this.coefficients.length - 1; i >= 0; i--) {
-            result = result * t + this.coefficients[i];
+    /**
+     * Turns the roots of the derivative into minima, maxima and inflection points.
+     */
+    public static List<ExtremePoint> classifyCriticalPoints(Polynomial polynomial, List<PolynomialRoot> criticalPoints,
+                                                            EvaluationMode mode) {
+        List<ExtremePoint> result = new ArrayList<>();
+        Polynomial derivative = polynomial.derivative();
+
+        for (PolynomialRoot criticalPoint : criticalPoints) {
+            // The first derivative that does not vanish has order multiplicity + 1, for simple roots the second one.
+            // Only its sign matters, so the derivatives are rescaled before their coefficients overflow. At 0 it is
+            // the sign of the lowest term of the derivative, which also holds for sparse polynomials like x^6000
+            double curvature;
+            if (criticalPoint.x == 0) {
+                curvature = Math.signum(derivative.coefficient(criticalPoint.multiplicity));
+            } else {
+                Polynomial higherDerivative = derivative;
+                for (int i = 0; i < criticalPoint.multiplicity; i++) {
+                    higherDerivative = rescaled(higherDerivative.derivative());
+                }
+                curvature = higherDerivative.isSparse() ? Math.signum(higherDerivative.evaluate(criticalPoint.x))
+                        : PolynomialMath.sign(higherDerivative.toDenseArray(), criticalPoint.x, mode);
+            }
+
+            ExtremePoint.Type type;
+            if (criticalPoint.multiplicity % 2 == 0 || curvature == 0) {
+                type = ExtremePoint.Type.INFLECTION;
+            } else if (curvature > 0) {
+                type = ExtremePoint.Type.MINIMUM;
+            } else {
+                type = ExtremePoint.Type.MAXIMUM;
+            }
+            double y = mode == EvaluationMode.COMPENSATED
+                    ? polynomial.evaluateCompensated(criticalPoint.x) : polynomial.evaluate(criticalPoint.x);
+            result.add(new ExtremePoint(criticalPoint.x, y, type));
         }
-        return new Vector2D(t, result);
+        return result;
     }
 
-    public void derive() {
-        if (coefficients == null || coefficients.length == 0) {
-            return;
+    private static Polynomial rescaled(Polynomial polynomial) {
+        double[] coefficients = polynomial.termCoefficients().clone();
+        double largest = 0;
+        for (double coefficient : coefficients) {
+            largest = Math.max(largest, Math.abs(coefficient));
         }
-
-        for (int i = 1; i < coefficients.length; i++) {
-            coefficients[i - 1] = i * coefficients[i];
+        if (largest == 0 || !Double.isFinite(largest)) {
+            return polynomial;
+        }
+        for (int i = 0; i < coefficients.length; i++) {
+            coefficients[i] /= largest;
         }
+        return Polynomial.fromSortedTerms(polynomial.termExponents().clone(), coefficients);
+    }
+
+    public synchronized void setAnalysis(FunctionAnalysis analysis) {
+        pendingAnalysis = null;
+        roots = analysis.roots;
+        extremePoints = analysis.extremePoints;
+        unavailableReason = analysis.unavailableReason;
+        analysed = true;
+    }
 
-        coefficients[coefficients.length - 1] = 0;
+    /**
+     * Sets an analysis that is only read when the roots or extreme points are first asked for, like one stored in a
+     * workspace file.
+     */
+    public synchronized void setAnalysis(Supplier<FunctionAnalysis> analysis) {
+        pendingAnalysis = analysis;
+        analysed = true;
+    }
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = coefficients.length - 1; i >= 0; i--) {
-            double coefficient = coefficients[i];
-            if (coefficient != 0) {
-                if (coefficient > 0 && sb.length() > 0) {
-                    sb.append("+");
-                }
-                if (i > 0) {
-                    sb.append(String.format("%.2fx^%d", coefficient, i));
-                } else {
-                    sb.append(String.format("%.2f", coefficient));
-                }
-            }
+    public List<PolynomialRoot> getRoots() {
+        if (pendingAnalysis != null) {
+            readPendingAnalysis();
         }
-        functionString =  sb.toString();
+        return roots;
     }
 
-    private void calcRoots(double start, double end, double step) {
-        roots = new ArrayList<>();
-        Vector2D prevPoint = evaluate(start);
-        for (double x = start + step; x <= end; x += step) {
-            Vector2D point = evaluate(x);
-            if (prevPoint.y * point.y <= 0) {
-                roots.add(x - step / 2);
-            }
-            prevPoint = point;
+    public List<ExtremePoint> getExtremePoints() {
+        if (pendingAnalysis != null) {
+            readPendingAnalysis();
         }
+        return extremePoints;
     }
 
-    public void calcExtremePoints(double start, double end, double step) {
-        extremePoints = new ArrayList<>();
-        Vector2D startPoint = evaluate(start);
-        Vector2D nextPoint = evaluate(start + step);
-        double prevSlope = (nextPoint.y - startPoint.y) / step;
-        for (double x = start + 2 * step; x <= end; x += step) {
-            Vector2D point = evaluate(x);
-            double slope = (point.y - evaluate(x - step).y) / step;
-            if (prevSlope * slope <= 0) {
-                extremePoints.add(x - step);
-            }
-            prevSlope = slope;
+    /**
+     * Returns why the analysis could not determine the roots and extreme points, or null if it did.
+     */
+    public String getUnavailableReason() {
+        if (pendingAnalysis != null) {
+            readPendingAnalysis();
+        }
+        return unavailableReason;
+    }
+
+    private synchronized void readPendingAnalysis() {
+        if (pendingAnalysis != null) {
+            FunctionAnalysis analysis = pendingAnalysis.get();
+            roots = analysis.roots;
+            extremePoints = analysis.extremePoints;
+            unavailableReason = analysis.unavailableReason;
+            pendingAnalysis = null;
         }
     }
 
+    public EvaluationMode getEvaluationMode() {
+        return evaluationMode;
+    }
+
+    /**
+     * Selects how the function is evaluated for plotting and for the analyses that follow.
+     */
+    public void setEvaluationMode(EvaluationMode mode) {
+        evaluationMode = mode;
+    }
+
+    /**
+     * Returns whether the function is evaluated in the factored form of its expression instead of its expansion.
+     */
+    public boolean isFactored() {
+        return factored != null;
+    }
+
+    public boolean isAnalysed() {
+        return analysed;
+    }
+
+    /**
+     * Returns a new dense coefficient array, where index i holds the coefficient of x^i.
+     */
+    public double[] getCoefficients() {
+        return polynomial.toDenseArray();
+    }
+
+    public Polynomial getPolynomial() {
+        return polynomial;
+    }
+
+    /**
+     * Returns the expression as entered, whose structure the analysis of factored functions works on.
+     */
+    public PolynomialExpression getExpression() {
+        return expression;
+    }
+
     public String getFunctionString() {
         return functionString;
     }
@@ -0,0 +1,191 @@
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+public final class PolynomialMath {
+    private static final double EPSILON = Math.ulp(1.0);
+    // Unit roundoff of double precision
+    private static final double UNIT_ROUNDOFF = EPSILON / 2;
+    private static final int SIGNIFICAND_BITS = 53;
+
+    private PolynomialMath() {
+    }
+
+    public static double evaluate(double[] coefficients, double x) {
+        // Horner scheme
+        double result = 0;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            result = result * x + coefficients[i];
+        }
+        return result;
+    }
+
+    /**
+     * Upper bound for the rounding error of {@link #evaluate(double[], double)} at x.
+     */
+    public static double evaluationErrorBound(double[] coefficients, double x) {
+        double absX = Math.abs(x);
+        double magnitude = 0;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            magnitude = magnitude * absX + Math.abs(coefficients[i]);
+        }
+        return 2 * coefficients.length * EPSILON * magnitude;
+    }
+
+    public static double evaluate(double[] coefficients, double x, EvaluationMode mode) {
+        return mode == EvaluationMode.COMPENSATED ? evaluateCompensated(coefficients, x) : evaluate(coefficients, x);
+    }
+
+    /**
+     * Compensated Horner scheme: the rounding errors of every product and sum are recovered with error-free
+     * transformations and accumulated in a second Horner scheme that corrects the result at the end.
+     */
+    public static double evaluateCompensated(double[] coefficients, double x) {
+        int n = coefficients.length - 1;
+        if (n < 0) {
+            return 0;
+        }
+        double result = coefficients[n];
+        double correction = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            double product = result * x;
+            double productError = Math.fma(result, x, -product);
+            double sum = product + coefficients[i];
+            double virtual = sum - product;
+            double sumError = (product - (sum - virtual)) + (coefficients[i] - virtual);
+            result = sum;
+            correction = correction * x + (productError + sumError);
+        }
+        return result + correction;
+    }
+
+    /**
+     * Upper bound for the error of a value computed by {@link #evaluateCompensated(double[], double)} at x,
+     * u|value| + gamma(2n)^2 * p~(|x|), doubled to cover the rounding of the bound itself.
+     */
+    public static double compensatedErrorBound(double[] coefficients, double x, double value) {
+        int n = coefficients.length - 1;
+        double gamma = 2 * n * UNIT_ROUNDOFF / (1 - 2 * n * UNIT_ROUNDOFF);
+        double absX = Math.abs(x);
+        double magnitude = 0;
+        for (int i = n; i >= 0; i--) {
+            magnitude = magnitude * absX + Math.abs(coefficients[i]);
+        }
+        return 2 * (UNIT_ROUNDOFF * Math.abs(value) + gamma * gamma * magnitude);
+    }
+
+    /**
+     * Returns the sign of the polynomial at x. In COMPENSATED mode the sign is exact: it is taken from the
+     * compensated value where the error bound guarantees it and computed with exact arithmetic otherwise, which
+     * includes every x at which the evaluation overflows.
+     */
+    public static double sign(double[] coefficients, double x, EvaluationMode mode) {
+        if (mode != EvaluationMode.COMPENSATED) {
+            return Math.signum(evaluate(coefficients, x));
+        }
+        double value = evaluateCompensated(coefficients, x);
+        if (Double.isFinite(value) && Math.abs(value) > compensatedErrorBound(coefficients, x, value)) {
+            return Math.signum(value);
+        }
+        if (!Double.isFinite(value)) {
+            // An overflow makes the value infinite or, through inf - inf in the error-free transforms, NaN
+            if (!Double.isFinite(x)) {
+                return Math.signum(value);
+            }
+            double scaledSign = scaledCompensatedSign(coefficients, x);
+            if (!Double.isNaN(scaledSign)) {
+                return scaledSign;
+            }
+        }
+        return exactSign(coefficients, x);
+    }
+
+    /**
+     * Sign of the polynomial at a finite x at which the compensated Horner scheme overflows, or NaN if the error
+     * bound does not decide it. The same scheme runs on values that are divided by a power of two whenever they
+     * grow large, which is exact, and every coefficient that joins afterwards is divided by the same power. The
+     * errors of coefficients and error terms that this pushes below the normal range are bounded separately.
+     */
+    private static double scaledCompensatedSign(double[] coefficients, double x) {
+        int n = coefficients.length - 1;
+        double absX = Math.abs(x);
+        int scale = 0;
+        double result = coefficients[n];
+        double correction = 0;
+        double magnitude = Math.abs(coefficients[n]);
+        double underflow = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            if (Math.getExponent(magnitude) + Math.getExponent(absX) > Double.MAX_EXPONENT / 2) {
+                // Brings magnitude * |x| back to about 2^(MAX_EXPONENT / 4)
+                int shift = Math.getExponent(magnitude) + Math.getExponent(absX) - Double.MAX_EXPONENT / 4;
+                if (Math.getExponent(magnitude) - shift < Double.MIN_EXPONENT + 2 * SIGNIFICAND_BITS) {
+                    return Double.NaN;
+                }
+                result = Math.scalb(result, -shift);
+                correction = Math.scalb(correction, -shift);
+                magnitude = Math.scalb(magnitude, -shift);
+                underflow = Math.scalb(underflow, -shift) + Double.MIN_NORMAL;
+                scale += shift;
+            }
+            double coefficient = Math.scalb(coefficients[i], -scale);
+            double product = result * x;
+            double productError = Math.fma(result, x, -product);
+            double sum = product + coefficient;
+            double virtual = sum - product;
+            double sumError = (product - (sum - virtual)) + (coefficient - virtual);
+            result = sum;
+            correction = correction * x + (productError + sumError);
+            magnitude = magnitude * absX + Math.abs(coefficient);
+            underflow = underflow * absX + Double.MIN_NORMAL;
+        }
+        double value = result + correction;
+        double gamma = 2 * n * UNIT_ROUNDOFF / (1 - 2 * n * UNIT_ROUNDOFF);
+        double bound = 2 * (UNIT_ROUNDOFF * Math.abs(value) + gamma * gamma * magnitude + underflow);
+        return Double.isFinite(bound) && Math.abs(value) > bound ? Math.signum(value) : Double.NaN;
+    }
+
+    /**
+     * Sign of the polynomial at x, evaluated without rounding. Every double is a finite decimal, so the Horner
+     * scheme over BigDecimal is exact, but its cost grows with the degree times the length of x.
+     */
+    static double exactSign(double[] coefficients, double x) {
+        BigDecimal exactX = new BigDecimal(x);
+        BigDecimal result = BigDecimal.ZERO;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            result = result.multiply(exactX).add(new BigDecimal(coefficients[i]));
+        }
+        return result.signum();
+    }
+
+    public static int degree(double[] coefficients) {
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            if (coefficients[i] != 0.0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    public static double[] trim(double[] coefficients) {
+        int length = degree(coefficients) + 1;
+        return length == coefficients.length ? coefficients : Arrays.copyOf(coefficients, length);
+    }
+
+    public static double[] derivative(double[] coefficients) {
+        if (coefficients.length <= 1) {
+            return new double[]{0};
+        }
+        double[] result = new double[coefficients.length - 1];
+        for (int i = 1; i < coefficients.length; i++) {
+            result[i - 1] = i * coefficients[i];
+        }
+        return result;
+    }
+
+    public static double[] subtract(double[] a, double[] b) {
+        double[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++) {
+            result[i] -= b[i];
+        }
+        return trim(result);
+    }
+}
@@ -0,0 +1,12 @@
+public class PolynomialParseException extends IllegalArgumentException {
+    private final int position;
+
+    public PolynomialParseException(String message, String input, int position) {
+        super(message + " at position " + position + ": " + input);
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,401 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Single-pass recursive descent parser for polynomial expressions like {@code 3x^2 - 1/2x + 4},
+ * {@code (x-1)(x-2)(x-3)}, {@code (1+x)^500} or {@code (x^2+1)@(x-3)}. The grammar, from loosest to tightest binding:
+ * <pre>
+ * sum         = [sign] product {sign product}
+ * product     = composition {['*'] composition}, where '*' may only be left out before 'x' and '('
+ * composition = power {('@' | '\u2218') power}, where p@q is p(q(x))
+ * power       = primary ['^' exponent]
+ * primary     = number {'/' number} | 'x' | '(' sum ')'
+ * </pre>
+ * Numbers are decimals in plain or scientific notation, exponents non-negative integers. Sums of terms go straight
+ * into arrays like with the plain term syntax, so only parentheses create a PolynomialExpression with structure.
+ * Results are cached by their expression with whitespace runs collapsed, which is safe because expressions are
+ * immutable.
+ */
+public final class PolynomialParser {
+    private static final int CACHE_SIZE = 4096;
+    // Expansions with more terms are rejected, as they would take too long and too much memory
+    private static final long MAX_TERMS = 1 << 22;
+    // Exponents are capped so that a dense copy of any polynomial, like PolynomialFunction#getCoefficients returns,
+    // stays at a few megabytes. Sparse polynomials up to this degree are analysed through the gcd of their exponents
+    private static final long MAX_EXPONENT = 1 << 20;
+    private static final Map<String, PolynomialExpression> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PolynomialExpression> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    private final String input;
+    private int position = 0;
+    // Terms of the sums being parsed, the innermost one at the end
+    private int[] exponents = new int[4];
+    private double[] coefficients = new double[4];
+    private int termCount = 0;
+    // A factor that is a single term is returned in these fields instead of as an expression
+    private double monomialCoefficient;
+    private int monomialExponent;
+
+    private PolynomialParser(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Parses and expands the polynomial.
+     */
+    public static Polynomial parse(String polynomial) {
+        return parseExpression(polynomial).expand();
+    }
+
+    public static PolynomialExpression parseExpression(String polynomial) {
+        if (polynomial == null || polynomial.isBlank()) {
+            throw new IllegalArgumentException("Polynomial string cannot be null or empty");
+        }
+        String key = normalize(polynomial);
+        PolynomialExpression result = CACHE.get(key);
+        if (result == null) {
+            result = new PolynomialParser(polynomial).parsePolynomial();
+            CACHE.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Parses and expands without consulting or filling the cache.
+     */
+    static Polynomial parseUncached(String polynomial) {
+        if (polynomial == null || polynomial.isBlank()) {
+            throw new IllegalArgumentException("Polynomial string cannot be null or empty");
+        }
+        return new PolynomialParser(polynomial).parsePolynomial().expand();
+    }
+
+    /**
+     * Collapses whitespace runs into one space rather than removing them, as whitespace separates tokens: {@code 1 2x}
+     * is an error while {@code 12x} is not.
+     */
+    private static String normalize(String polynomial) {
+        StringBuilder sb = new StringBuilder(polynomial.length());
+        boolean whitespace = false;
+        for (int i = 0; i < polynomial.length(); i++) {
+            char c = polynomial.charAt(i);
+            if (Character.isWhitespace(c)) {
+                whitespace = true;
+                continue;
+            }
+            if (whitespace) {
+                sb.append(' ');
+                whitespace = false;
+            }
+            sb.append(c == 'X' ? 'x' : c);
+        }
+        if (whitespace) {
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+
+    private PolynomialExpression parsePolynomial() {
+        PolynomialExpression result = parseSum();
+        if (position < input.length()) {
+            throw error("Unmatched ')'");
+        }
+        return result;
+    }
+
+    /**
+     * Parses a sum up to the end of the input or a closing parenthesis.
+     */
+    private PolynomialExpression parseSum() {
+        int start = termCount;
+        PolynomialExpression structured = PolynomialExpression.ZERO;
+        skipWhitespace();
+        boolean first = true;
+        while (first || (position < input.length() && peek() != ')')) {
+            double sign = 1.0;
+            char c = peek();
+            if (c == '+' || c == '-') {
+                sign = c == '-' ? -1.0 : 1.0;
+                position++;
+                skipWhitespace();
+            } else if (!first) {
+                throw error("Expected '+' or '-'");
+            }
+            PolynomialExpression term = parseProduct(sign);
+            if (term != null) {
+                structured = PolynomialExpression.sum(structured, term);
+            }
+            first = false;
+        }
+
+        int count = termCount - start;
+        Polynomial terms = start == 0
+                ? Polynomial.fromTerms(exponents, coefficients, count)
+                : Polynomial.fromTerms(Arrays.copyOfRange(exponents, start, termCount),
+                Arrays.copyOfRange(coefficients, start, termCount), count);
+        termCount = start;
+        return PolynomialExpression.sum(PolynomialExpression.of(terms), structured);
+    }
+
+    /**
+     * Parses a product. A single term is added to the terms of the enclosing sum and null returned, anything
+     * else is returned as an expression.
+     */
+    private PolynomialExpression parseProduct(double sign) {
+        int start = position;
+        double coefficient = sign;
+        int exponent = 0;
+        List<PolynomialExpression> factors = null;
+        while (true) {
+            PolynomialExpression factor = parseComposition();
+            if (factor == null) {
+                coefficient *= monomialCoefficient;
+                exponent = addExponents(exponent, monomialExponent, start);
+            } else {
+                if (factors == null) {
+                    factors = new ArrayList<>();
+                }
+                factors.add(factor);
+            }
+            skipWhitespace();
+            if (peek() == '*') {
+                position++;
+                skipWhitespace();
+            } else if (!isVariable(peek()) && peek() != '(') {
+                break;
+            }
+        }
+
+        if (factors == null) {
+            if (termCount == exponents.length) {
+                exponents = Arrays.copyOf(exponents, termCount * 2);
+                coefficients = Arrays.copyOf(coefficients, termCount * 2);
+            }
+            exponents[termCount] = exponent;
+            coefficients[termCount] = coefficient;
+            termCount++;
+            return null;
+        }
+        List<PolynomialExpression> allFactors = factors;
+        allFactors.add(PolynomialExpression.of(monomial(coefficient, exponent)));
+        int end = position;
+        return checkSize(() -> PolynomialExpression.product(allFactors), start, end);
+    }
+
+    private PolynomialExpression parseComposition() {
+        int start = position;
+        PolynomialExpression outer = parsePower();
+        skipWhitespace();
+        if (peek() != '@' && peek() != '\u2218') {
+            return outer;
+        }
+        PolynomialExpression outerExpression = outer != null ? outer : monomialExpression();
+        position++;
+        skipWhitespace();
+        PolynomialExpression inner = parseComposition();
+        PolynomialExpression innerExpression = inner != null ? inner : monomialExpression();
+        int end = position;
+        return checkSize(() -> PolynomialExpression.compose(outerExpression, innerExpression), start, end);
+    }
+
+    private PolynomialExpression parsePower() {
+        int start = position;
+        PolynomialExpression base = parsePrimary();
+        skipWhitespace();
+        if (peek() != '^') {
+            return base;
+        }
+        position++;
+        skipWhitespace();
+        int exponent = parseExponent();
+        if (base == null) {
+            monomialCoefficient = Math.pow(monomialCoefficient, exponent);
+            monomialExponent = multiplyExponents(monomialExponent, exponent, start);
+            return null;
+        }
+        int end = position;
+        return checkSize(() -> PolynomialExpression.power(base, exponent), start, end);
+    }
+
+    private PolynomialExpression parsePrimary() {
+        char c = peek();
+        if (isNumberStart(c)) {
+            monomialCoefficient = parseFraction();
+            monomialExponent = 0;
+            return null;
+        }
+        if (isVariable(c)) {
+            position++;
+            monomialCoefficient = 1.0;
+            monomialExponent = 1;
+            return null;
+        }
+        if (c != '(') {
+            throw error("Expected a number, 'x' or '('");
+        }
+        position++;
+        PolynomialExpression result = parseSum();
+        if (peek() != ')') {
+            throw error("Expected ')'");
+        }
+        position++;
+        if (!result.isFactored() && result.expand().termCount() <= 1) {
+            Polynomial polynomial = result.expand();
+            monomialCoefficient = polynomial.coefficient(polynomial.degree());
+            monomialExponent = polynomial.degree();
+            return null;
+        }
+        return result;
+    }
+
+    private PolynomialExpression monomialExpression() {
+        return PolynomialExpression.of(monomial(monomialCoefficient, monomialExponent));
+    }
+
+    private static Polynomial monomial(double coefficient, int exponent) {
+        return Polynomial.fromTerms(new int[]{exponent}, new double[]{coefficient}, 1);
+    }
+
+    /**
+     * Builds an expression and rejects it if its expansion would be too large, reporting the error at the start of
+     * the input it was parsed from.
+     */
+    private PolynomialExpression checkSize(Supplier<PolynomialExpression> builder, int start, int end) {
+        PolynomialExpression result;
+        try {
+            result = builder.get();
+        } catch (ArithmeticException e) {
+            result = null;
+        }
+        if (result == null || result.degree() > MAX_EXPONENT || result.termBound() > MAX_TERMS) {
+            position = start;
+            throw error("Polynomial is too large to expand");
+        }
+        position = end;
+        return result;
+    }
+
+    private int addExponents(int a, int b, int start) {
+        if ((long) a + b > MAX_EXPONENT) {
+            position = start;
+            throw error("Exponent is too large");
+        }
+        return a + b;
+    }
+
+    private int multiplyExponents(int a, int b, int start) {
+        if ((long) a * b > MAX_EXPONENT) {
+            position = start;
+            throw error("Exponent is too large");
+        }
+        return a * b;
+    }
+
+    private double parseFraction() {
+        double value = parseNumber();
+        skipWhitespace();
+        while (peek() == '/') {
+            position++;
+            skipWhitespace();
+            int divisorPosition = position;
+            double divisor = parseNumber();
+            if (divisor == 0) {
+                position = divisorPosition;
+                throw error("Division by zero");
+            }
+            value /= divisor;
+            skipWhitespace();
+        }
+        return value;
+    }
+
+    private double parseNumber() {
+        int start = position;
+        while (isDigit(peek())) {
+            position++;
+        }
+        if (peek() == '.') {
+            position++;
+            while (isDigit(peek())) {
+                position++;
+            }
+        }
+        if (position == start || (position == start + 1 && input.charAt(start) == '.')) {
+            position = start;
+            throw error("Expected a number");
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            position++;
+            if (peek() == '+' || peek() == '-') {
+                position++;
+            }
+            if (!isDigit(peek())) {
+                throw error("Expected digits of the exponent");
+            }
+            while (isDigit(peek())) {
+                position++;
+            }
+        }
+        return Double.parseDouble(input.substring(start, position));
+    }
+
+    private int parseExponent() {
+        if (peek() == '-') {
+            throw error("Negative exponents are not supported");
+        }
+        int start = position;
+        long exponent = 0;
+        while (isDigit(peek())) {
+            exponent = exponent * 10 + (peek() - '0');
+            if (exponent > MAX_EXPONENT) {
+                position = start;
+                throw error("Exponent is too large");
+            }
+            position++;
+        }
+        if (position == start) {
+            throw error("Expected an exponent");
+        }
+        return (int) exponent;
+    }
+
+    private char peek() {
+        return position < input.length() ? input.charAt(position) : '\0';
+    }
+
+    private void skipWhitespace() {
+        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    /**
+     * Only ASCII digits. Character.isDigit also accepts the digits of other scripts, which neither
+     * Double.parseDouble nor the exponent parsing handle.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isNumberStart(char c) {
+        return isDigit(c) || c == '.';
+    }
+
+    private static boolean isVariable(char c) {
+        return c == 'x' || c == 'X';
+    }
+
+    private PolynomialParseException error(String message) {
+        return new PolynomialParseException(message, input, position);
+    }
+}
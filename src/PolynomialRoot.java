@@ -0,0 +1,17 @@
+public class PolynomialRoot {
+    public final double x;
+    public final int multiplicity;
+
+    public PolynomialRoot(double x, int multiplicity) {
+        this.x = x;
+        this.multiplicity = multiplicity;
+    }
+
+    @Override
+    public String toString() {
+        if (multiplicity > 1) {
+            return String.format("%.2f (x%d)", x, multiplicity);
+        }
+        return String.format("%.2f", x);
+    }
+}
@@ -0,0 +1,579 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Finds the real roots of a polynomial given by its coefficient array.
+ * The polynomial is split into square-free factors (Yun's algorithm), whose roots all share the same multiplicity.
+ * Rounding errors make multiple roots look like clusters of close roots, so the divisions of the factorization treat
+ * coefficients up to a tolerance as cancelled out. A tolerance that also merges roots which are truly distinct is
+ * detected by checking every multiple root against the polynomial and replaced by a smaller one.
+ * The roots of every factor are isolated with its Sturm sequence inside the Cauchy bound and then polished with
+ * bracketed Newton iterations, so the work depends on the degree of the polynomial instead of on the interval width.
+ * The {@link EvaluationMode} selects how the signs for the Sturm sequences and the brackets are evaluated.
+ * A polynomial given by its terms is written as x^k q(x^g) with g the gcd of its exponent gaps and solved through q,
+ * so sparse polynomials like x^6000 - 1 are analysed at the degree of q without expanding them into dense arrays.
+ */
+public final class PolynomialRootFinder {
+    // Relative sizes below which coefficients produced by polynomial division are treated as cancelled out, tried in
+    // this order until the factorization only reports multiple roots that the polynomial confirms. The last one
+    // only accepts exact cancellation
+    private static final double[] TOLERANCES = {1e-9, 1e-12, 1e-15, 0};
+    // The square-free factorization and Sturm sequences cost O(degree^2), so higher degrees of q are not analysed
+    public static final int MAX_DEGREE = 5000;
+    // Relative rounding error of x^g per unit of g, by which the interval for q is widened so no root is lost
+    private static final double POWER_ROUNDING = 4 * Math.ulp(1.0);
+    private static final int MAX_NEWTON_ITERATIONS = 100;
+
+    private PolynomialRootFinder() {
+    }
+
+    public static List<PolynomialRoot> findRoots(double[] coefficients, double start, double end) {
+        return findRoots(coefficients, start, end, EvaluationMode.STANDARD);
+    }
+
+    public static List<PolynomialRoot> findRoots(double[] coefficients, double start, double end, EvaluationMode mode) {
+        return factor(coefficients, mode).findRoots(start, end);
+    }
+
+    /**
+     * The square-free factors of a polynomial with their Sturm sequences. Preparing them costs O(degree^2), each
+     * search afterwards only isolates and polishes the roots inside its interval, so the sub-intervals of a
+     * parallel search share one factorization.
+     */
+    public static final class Factorization {
+        private final double[] polynomial;
+        private final List<Factor> factors;
+        private final EvaluationMode mode;
+        private final String unavailableReason;
+        // The factored polynomial is q in x^lowestExponent q(x^stride)
+        private final int lowestExponent;
+        private final int stride;
+
+        private Factorization(double[] polynomial, List<Factor> factors, EvaluationMode mode) {
+            this(polynomial, factors, mode, null, 0, 1);
+        }
+
+        private Factorization(double[] polynomial, List<Factor> factors, EvaluationMode mode, String unavailableReason,
+                              int lowestExponent, int stride) {
+            this.polynomial = polynomial;
+            this.factors = factors;
+            this.mode = mode;
+            this.unavailableReason = unavailableReason;
+            this.lowestExponent = lowestExponent;
+            this.stride = stride;
+        }
+
+        private static Factorization unavailable(String reason, EvaluationMode mode) {
+            return new Factorization(new double[]{0}, List.of(), mode, reason, 0, 1);
+        }
+
+        /**
+         * Returns why the roots cannot be searched, or null if they can. Searches then find no roots.
+         */
+        public String unavailableReason() {
+            return unavailableReason;
+        }
+
+        public List<PolynomialRoot> findRoots(double start, double end) {
+            List<PolynomialRoot> roots = new ArrayList<>();
+            if (start > end) {
+                return roots;
+            }
+            if (stride == 1) {
+                roots.addAll(findReducedRoots(start, end));
+            } else if (stride % 2 == 1) {
+                // x^g is increasing for odd g
+                for (PolynomialRoot root : findReducedRoots(widenedPower(start, -1), widenedPower(end, 1))) {
+                    double x = Math.copySign(Math.pow(Math.abs(root.x), 1.0 / stride), root.x);
+                    if (x >= start && x <= end) {
+                        roots.add(new PolynomialRoot(x, root.multiplicity));
+                    }
+                }
+            } else {
+                // Every positive root y of q gives the roots -y^(1/g) and y^(1/g)
+                double low = start > 0 ? start : end < 0 ? -end : 0;
+                double high = Math.max(Math.abs(start), Math.abs(end));
+                for (PolynomialRoot root : findReducedRoots(widenedPower(low, -1), widenedPower(high, 1))) {
+                    double x = Math.pow(root.x, 1.0 / stride);
+                    if (-x >= start && -x <= end) {
+                        roots.add(new PolynomialRoot(-x, root.multiplicity));
+                    }
+                    if (x >= start && x <= end) {
+                        roots.add(new PolynomialRoot(x, root.multiplicity));
+                    }
+                }
+            }
+            // q does not vanish at 0, so a root there only comes from x^lowestExponent
+            if (lowestExponent > 0 && start <= 0 && end >= 0) {
+                roots.add(new PolynomialRoot(0, lowestExponent));
+            }
+            roots.sort(Comparator.comparingDouble(root -> root.x));
+            return roots;
+        }
+
+        /**
+         * x^stride, moved outwards in the given direction by its rounding error.
+         */
+        private double widenedPower(double x, int direction) {
+            double power = Polynomial.pow(x, stride);
+            return power + direction * Math.abs(power) * POWER_ROUNDING * stride;
+        }
+
+        private List<PolynomialRoot> findReducedRoots(double start, double end) {
+            List<PolynomialRoot> roots = new ArrayList<>();
+            for (Factor factor : factors) {
+                List<Double> candidates;
+                if (factor.roots != null) {
+                    candidates = new ArrayList<>();
+                    for (double root : factor.roots) {
+                        if (root >= start && root <= end) {
+                            candidates.add(root);
+                        }
+                    }
+                } else {
+                    candidates = isolateAndSolve(factor, start, end, mode);
+                }
+                for (double root : candidates) {
+                    int multiplicity = factor.multiplicity > 0 ? factor.multiplicity
+                            : Math.max(1, vanishingDerivatives(polynomial, root, PolynomialMath.degree(polynomial)));
+                    roots.add(new PolynomialRoot(root, multiplicity));
+                }
+            }
+            return roots;
+        }
+    }
+
+    /**
+     * A square-free factor whose roots have the given multiplicity in the polynomial, or 0 if it differs per root.
+     * The roots of multiple factors are found on the whole real line once, when they are confirmed.
+     */
+    private static final class Factor {
+        final double[] polynomial;
+        final double[] polishTarget;
+        final List<double[]> sturm;
+        final int multiplicity;
+        List<Double> roots = null;
+
+        Factor(double[] polynomial, double[] polishTarget, int multiplicity) {
+            this.polynomial = polynomial;
+            this.polishTarget = polishTarget;
+            this.sturm = sturmSequence(polynomial);
+            this.multiplicity = multiplicity;
+        }
+    }
+
+    /**
+     * Factors the polynomial x^k q(x^g) through q, see the class comment.
+     */
+    public static Factorization factor(Polynomial polynomial, EvaluationMode mode) {
+        int[] exponents = polynomial.termExponents();
+        double[] coefficients = polynomial.termCoefficients();
+        if (exponents.length == 0) {
+            return new Factorization(new double[]{0}, List.of(), mode);
+        }
+        int lowestExponent = exponents[0];
+        int stride = 0;
+        for (int exponent : exponents) {
+            stride = gcd(stride, exponent - lowestExponent);
+        }
+        stride = Math.max(stride, 1);
+        int reducedDegree = (exponents[exponents.length - 1] - lowestExponent) / stride;
+        if (reducedDegree > MAX_DEGREE) {
+            return Factorization.unavailable("degree above " + MAX_DEGREE, mode);
+        }
+
+        double[] reduced = new double[reducedDegree + 1];
+        for (int i = 0; i < exponents.length; i++) {
+            reduced[(exponents[i] - lowestExponent) / stride] = coefficients[i];
+        }
+        Factorization factorization = factor(reduced, mode);
+        return new Factorization(factorization.polynomial, factorization.factors, mode,
+                factorization.unavailableReason, lowestExponent, stride);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+
+    /**
+     * Factors the polynomial for root searches. Constants get a factorization without factors, polynomials that
+     * cannot be searched one with the reason, see {@link Factorization#unavailableReason()}.
+     */
+    public static Factorization factor(double[] coefficients, EvaluationMode mode) {
+        // The expansion of a large product may overflow, then the coefficients carry no information about the roots
+        for (double coefficient : coefficients) {
+            if (!Double.isFinite(coefficient)) {
+                return Factorization.unavailable("coefficients overflow", mode);
+            }
+        }
+        double[] polynomial = normalize(PolynomialMath.trim(coefficients));
+        if (PolynomialMath.degree(polynomial) > MAX_DEGREE) {
+            return Factorization.unavailable("degree above " + MAX_DEGREE, mode);
+        }
+        if (PolynomialMath.degree(polynomial) == 0) {
+            return new Factorization(polynomial, List.of(), mode);
+        }
+
+        for (double tolerance : TOLERANCES) {
+            List<double[]> squareFreeFactors = squareFreeFactors(polynomial, tolerance);
+            if (squareFreeFactors == null) {
+                continue;
+            }
+            List<Factor> factors = new ArrayList<>();
+            for (int i = 0; i < squareFreeFactors.size(); i++) {
+                if (PolynomialMath.degree(squareFreeFactors.get(i)) > 0) {
+                    factors.add(new Factor(squareFreeFactors.get(i), polishTarget(polynomial, i + 1), i + 1));
+                }
+            }
+            if (hasConfirmedMultiplicities(polynomial, factors, mode)) {
+                return new Factorization(polynomial, factors, mode);
+            }
+        }
+        // No factorization could be confirmed, so only the roots of the square-free part are isolated and their
+        // multiplicities are taken from the derivatives that vanish there
+        double[] squareFree = squareFreePart(polynomial, 0);
+        return new Factorization(polynomial, List.of(new Factor(squareFree, squareFree, 0)), mode);
+    }
+
+    /**
+     * A root of multiplicity m is a simple root of the (m-1)th derivative, which is used for polishing.
+     */
+    private static double[] polishTarget(double[] polynomial, int multiplicity) {
+        double[] polishTarget = polynomial;
+        for (int k = 1; k < multiplicity; k++) {
+            polishTarget = PolynomialMath.derivative(polishTarget);
+        }
+        return polishTarget;
+    }
+
+    /**
+     * The product of the distinct factors of the polynomial, p / gcd(p, p').
+     */
+    private static double[] squareFreePart(double[] polynomial, double tolerance) {
+        return divide(polynomial, gcd(polynomial, PolynomialMath.derivative(polynomial), tolerance), tolerance);
+    }
+
+    /**
+     * Yun's square-free factorization: returns a_1, a_2, ... with p = c * a_1 * a_2^2 * a_3^3 ..., or null if
+     * rounding errors broke it.
+     */
+    private static List<double[]> squareFreeFactors(double[] polynomial, double tolerance) {
+        List<double[]> factors = new ArrayList<>();
+        double[] derivative = PolynomialMath.derivative(polynomial);
+        double[] gcd = gcd(polynomial, derivative, tolerance);
+        double[] b = divide(polynomial, gcd, tolerance);
+        double[] c = divide(derivative, gcd, tolerance);
+        double[] d = subtractNormalized(c, PolynomialMath.derivative(b), tolerance);
+
+        while (PolynomialMath.degree(b) > 0) {
+            if (factors.size() >= PolynomialMath.degree(polynomial)) {
+                return null;
+            }
+            double[] a = gcd(b, d, tolerance);
+            factors.add(a);
+            b = divide(b, a, tolerance);
+            c = divide(d, a, tolerance);
+            d = subtractNormalized(c, PolynomialMath.derivative(b), tolerance);
+        }
+        return factors;
+    }
+
+    /**
+     * Finds the real roots of the factors with multiplicity m > 1 and checks them against the polynomial, whose
+     * derivatives of order below m must vanish there too. Distinct roots that the tolerance merged fail this, the
+     * cluster of a multiple root that rounding split up passes.
+     */
+    private static boolean hasConfirmedMultiplicities(double[] polynomial, List<Factor> factors, EvaluationMode mode) {
+        for (Factor factor : factors) {
+            if (factor.multiplicity < 2) {
+                continue;
+            }
+            factor.roots = isolateAndSolve(factor, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, mode);
+            for (double root : factor.roots) {
+                if (vanishingDerivatives(polynomial, root, factor.multiplicity - 1) < factor.multiplicity - 1) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the derivatives of order 0, 1, ... up to the limit that vanish at x within coefficient rounding.
+     */
+    private static int vanishingDerivatives(double[] polynomial, double x, int limit) {
+        double[] derivative = polynomial;
+        int count = 0;
+        while (count < limit && vanishesWithinCoefficientRounding(derivative, x)) {
+            derivative = PolynomialMath.derivative(derivative);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Whether the accurate value at x is within the rounding error of an ordinary evaluation, which is also the
+     * order of the error that rounding the coefficients to doubles caused. Unlike the exact sign this accepts the
+     * roots of a multiple factor whose rounded coefficients have split it up.
+     */
+    private static boolean vanishesWithinCoefficientRounding(double[] polynomial, double x) {
+        return Math.abs(PolynomialMath.evaluateCompensated(polynomial, x)) <= PolynomialMath.evaluationErrorBound(polynomial, x);
+    }
+
+    private static List<Double> isolateAndSolve(Factor squareFree, double start, double end, EvaluationMode mode) {
+        double[] factor = squareFree.polynomial;
+        double[] polishTarget = squareFree.polishTarget;
+        List<double[]> sturm = squareFree.sturm;
+        List<Double> roots = new ArrayList<>();
+        double bound = cauchyBound(factor);
+        double low = Math.max(start, -bound);
+        double high = Math.min(end, bound);
+        if (low > high) {
+            return roots;
+        }
+        if (PolynomialMath.sign(factor, low, mode) == 0) {
+            roots.add(low);
+        }
+
+        // Each interval (a, b] holds V(a) - V(b) distinct roots, where V counts the sign variations of the sequence
+        Deque<double[]> intervals = new ArrayDeque<>();
+        intervals.push(new double[]{low, high, signVariations(sturm, low, mode), signVariations(sturm, high, mode)});
+
+        while (!intervals.isEmpty()) {
+            double[] interval = intervals.pop();
+            double a = interval[0];
+            double b = interval[1];
+            int count = (int) (interval[2] - interval[3]);
+            if (count <= 0) {
+                continue;
+            }
+
+            double fa = PolynomialMath.sign(factor, a, mode);
+            double fb = PolynomialMath.sign(factor, b, mode);
+            if (count == 1 && fb == 0) {
+                roots.add(b);
+                continue;
+            }
+            if (count == 1 && fa != 0 && fa != fb) {
+                double root = polish(factor, a, b, mode);
+                roots.add(refine(polishTarget, root, a, b, mode));
+                continue;
+            }
+
+            double middle = a + (b - a) / 2;
+            if (middle <= a || middle >= b) {
+                // Interval cannot be split any further, only keep it if it is a root within rounding error
+                if (isRootWithinRoundingError(factor, middle, mode)) {
+                    roots.add(middle);
+                }
+                continue;
+            }
+            int middleVariations = signVariations(sturm, middle, mode);
+            intervals.push(new double[]{middle, b, middleVariations, interval[3]});
+            intervals.push(new double[]{a, middle, interval[2], middleVariations});
+        }
+        return roots;
+    }
+
+    private static boolean isRootWithinRoundingError(double[] polynomial, double x, EvaluationMode mode) {
+        if (mode == EvaluationMode.COMPENSATED) {
+            double value = PolynomialMath.evaluateCompensated(polynomial, x);
+            return Math.abs(value) <= PolynomialMath.compensatedErrorBound(polynomial, x, value);
+        }
+        return Math.abs(PolynomialMath.evaluate(polynomial, x)) <= PolynomialMath.evaluationErrorBound(polynomial, x);
+    }
+
+    /**
+     * Newton iteration safeguarded by bisection, keeping a sign-changing bracket [low, high] around the root.
+     */
+    private static double polish(double[] polynomial, double low, double high, EvaluationMode mode) {
+        double[] derivative = PolynomialMath.derivative(polynomial);
+        double lowSign = PolynomialMath.sign(polynomial, low, mode);
+        double x = low + (high - low) / 2;
+
+        for (int i = 0; i < MAX_NEWTON_ITERATIONS; i++) {
+            double value = PolynomialMath.evaluate(polynomial, x, mode);
+            if (value == 0 || (mode == EvaluationMode.COMPENSATED
+                    && Math.abs(value) <= PolynomialMath.compensatedErrorBound(polynomial, x, value))) {
+                // x is a root within the accuracy of the evaluation, its exact sign would not improve it
+                return x;
+            }
+            if (Math.signum(value) == lowSign) {
+                low = x;
+            } else {
+                high = x;
+            }
+
+            double slope = PolynomialMath.evaluate(derivative, x, mode);
+            double next = slope != 0 ? x - value / slope : Double.NaN;
+            if (!(next > low && next < high)) {
+                next = low + (high - low) / 2;
+            }
+            if (next == x || next <= low || next >= high) {
+                return x;
+            }
+            x = next;
+        }
+        return x;
+    }
+
+    /**
+     * Newton steps on a polynomial with a simple root near x, accepted only while they stay inside (low, high].
+     */
+    private static double refine(double[] polynomial, double x, double low, double high, EvaluationMode mode) {
+        double[] derivative = PolynomialMath.derivative(polynomial);
+        double bestValue = Math.abs(PolynomialMath.evaluate(polynomial, x, mode));
+
+        for (int i = 0; i < MAX_NEWTON_ITERATIONS && bestValue > 0; i++) {
+            double slope = PolynomialMath.evaluate(derivative, x, mode);
+            if (slope == 0) {
+                break;
+            }
+            double next = x - PolynomialMath.evaluate(polynomial, x, mode) / slope;
+            if (!(next > low && next <= high)) {
+                break;
+            }
+            double nextValue = Math.abs(PolynomialMath.evaluate(polynomial, next, mode));
+            if (nextValue >= bestValue) {
+                break;
+            }
+            x = next;
+            bestValue = nextValue;
+        }
+        return x;
+    }
+
+    private static List<double[]> sturmSequence(double[] polynomial) {
+        List<double[]> sequence = new ArrayList<>();
+        sequence.add(polynomial);
+        sequence.add(normalize(PolynomialMath.derivative(polynomial)));
+
+        while (PolynomialMath.degree(sequence.get(sequence.size() - 1)) > 0) {
+            double[] remainder = longDivision(sequence.get(sequence.size() - 2), sequence.get(sequence.size() - 1), 0)[1];
+            if (isZero(remainder)) {
+                break;
+            }
+            for (int i = 0; i < remainder.length; i++) {
+                remainder[i] = -remainder[i];
+            }
+            sequence.add(normalize(remainder));
+        }
+        return sequence;
+    }
+
+    private static int signVariations(List<double[]> sequence, double x, EvaluationMode mode) {
+        int variations = 0;
+        double previousSign = 0;
+        for (double[] polynomial : sequence) {
+            double sign = PolynomialMath.sign(polynomial, x, mode);
+            // A NaN sign carries no information and must not count as a variation
+            if (sign != 0 && !Double.isNaN(sign)) {
+                if (previousSign != 0 && sign != previousSign) {
+                    variations++;
+                }
+                previousSign = sign;
+            }
+        }
+        return variations;
+    }
+
+    private static double cauchyBound(double[] polynomial) {
+        int degree = PolynomialMath.degree(polynomial);
+        double max = 0;
+        for (int i = 0; i < degree; i++) {
+            max = Math.max(max, Math.abs(polynomial[i] / polynomial[degree]));
+        }
+        return 1 + max;
+    }
+
+    private static double[] gcd(double[] a, double[] b, double tolerance) {
+        a = normalize(a);
+        b = normalize(b);
+        while (!isZero(b)) {
+            double[] remainder = longDivision(a, b, tolerance)[1];
+            a = b;
+            b = normalize(remainder);
+        }
+        return a;
+    }
+
+    private static double[] divide(double[] dividend, double[] divisor, double tolerance) {
+        return longDivision(dividend, divisor, tolerance)[0];
+    }
+
+    /**
+     * Returns quotient and remainder, with remainder coefficients that cancelled out up to the tolerance set to zero.
+     */
+    private static double[][] longDivision(double[] dividend, double[] divisor, double tolerance) {
+        int divisorDegree = PolynomialMath.degree(divisor);
+        int dividendDegree = PolynomialMath.degree(dividend);
+        double[] remainder = PolynomialMath.trim(dividend).clone();
+        if (dividendDegree < divisorDegree) {
+            return new double[][]{{0}, remainder};
+        }
+
+        double scale = maxAbs(dividend);
+        double[] quotient = new double[dividendDegree - divisorDegree + 1];
+        for (int i = dividendDegree - divisorDegree; i >= 0; i--) {
+            double factor = remainder[i + divisorDegree] / divisor[divisorDegree];
+            quotient[i] = factor;
+            for (int j = 0; j <= divisorDegree; j++) {
+                remainder[i + j] -= factor * divisor[j];
+            }
+            remainder[i + divisorDegree] = 0;
+        }
+        for (int i = 0; i < remainder.length; i++) {
+            if (Math.abs(remainder[i]) <= tolerance * scale) {
+                remainder[i] = 0;
+            }
+        }
+        return new double[][]{quotient, PolynomialMath.trim(remainder)};
+    }
+
+    private static double[] subtractNormalized(double[] a, double[] b, double tolerance) {
+        double[] difference = PolynomialMath.subtract(a, b);
+        double scale = Math.max(maxAbs(a), maxAbs(b));
+        for (int i = 0; i < difference.length; i++) {
+            if (Math.abs(difference[i]) <= tolerance * scale) {
+                difference[i] = 0;
+            }
+        }
+        return PolynomialMath.trim(difference);
+    }
+
+    private static boolean isZero(double[] polynomial) {
+        return maxAbs(polynomial) == 0;
+    }
+
+    private static double maxAbs(double[] polynomial) {
+        double max = 0;
+        for (double coefficient : polynomial) {
+            max = Math.max(max, Math.abs(coefficient));
+        }
+        return max;
+    }
+
+    /**
+     * Scales the polynomial to a maximum coefficient of one, which keeps the roots and the signs unchanged.
+     */
+    private static double[] normalize(double[] polynomial) {
+        double[] trimmed = PolynomialMath.trim(polynomial);
+        double max = maxAbs(trimmed);
+        if (max == 0 || max == 1) {
+            return trimmed;
+        }
+        double[] result = new double[trimmed.length];
+        for (int i = 0; i < trimmed.length; i++) {
+            result[i] = trimmed[i] / max;
+        }
+        return result;
+    }
+}
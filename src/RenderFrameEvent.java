@@ -0,0 +1,50 @@
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event for one frame rendered by a GraphPanel, so stalls in a recording can be matched with
+ * the polynomial degree and zoom level at that time.
+ */
+@Name("polynomialvisualizer.RenderFrame")
+@Label("Render Frame")
+@Category("Polynomial Visualizer")
+@StackTrace(false)
+public class RenderFrameEvent extends Event {
+    @Label("Background")
+    @Timespan
+    long background;
+
+    @Label("Curves")
+    @Timespan
+    long curves;
+
+    @Label("Intersections")
+    @Timespan
+    long intersections;
+
+    @Label("Markers")
+    @Timespan
+    long markers;
+
+    @Label("Compose")
+    @Timespan
+    long compose;
+
+    @Label("Evaluations")
+    long evaluations;
+
+    @Label("Samples")
+    long samples;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    @Label("Functions")
+    int functions;
+
+    @Label("Max Degree")
+    int maxDegree;
+
+    @Label("Scale")
+    double scale;
+}
@@ -0,0 +1,56 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * Cached raster of one layer of a frame, redrawn only when the key describing its inputs changes.
+ */
+public class RenderLayer {
+    private final boolean opaque;
+    private BufferedImage image = null;
+    private Object key = null;
+
+    public RenderLayer(boolean opaque) {
+        this.opaque = opaque;
+    }
+
+    public boolean isValidFor(Object key) {
+        return image != null && key.equals(this.key);
+    }
+
+    /**
+     * Returns a cleared graphics context for the layer. The layer stays invalid until {@link #markValid} is called,
+     * so a redraw that is abandoned halfway is never reused.
+     */
+    public Graphics2D redraw(int width, int height) {
+        key = null;
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        Graphics2D g2d = image.createGraphics();
+        if (!opaque) {
+            g2d.setComposite(AlphaComposite.Clear);
+            g2d.fillRect(0, 0, width, height);
+            g2d.setComposite(AlphaComposite.SrcOver);
+        }
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return g2d;
+    }
+
+    public void markValid(Object key) {
+        this.key = key;
+    }
+
+    public void drawOnto(Graphics2D g2d) {
+        g2d.drawImage(image, 0, 0, null);
+    }
+
+    /**
+     * Draws the last raster of the layer with the transform, even if the layer is no longer valid.
+     */
+    public void drawOnto(Graphics2D g2d, AffineTransform transform) {
+        if (image != null) {
+            g2d.drawImage(image, transform, null);
+        }
+    }
+}
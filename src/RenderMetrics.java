@@ -0,0 +1,248 @@
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects per-phase timings, evaluation and sample counts and allocations of the frames rendered by a GraphPanel.
+ * A frame is measured on the render thread between {@link #beginFrame} and {@link #endFrame}, each {@link #mark}
+ * attributes the time since the previous mark to a phase. Completed frames are published as an immutable
+ * {@link Frame} for the HUD and the JMX bean and are also committed as a {@link RenderFrameEvent}.
+ */
+public class RenderMetrics implements RenderMetricsMXBean {
+    public enum Phase {
+        BACKGROUND,
+        CURVES,
+        INTERSECTIONS,
+        MARKERS,
+        COMPOSE
+    }
+
+    /**
+     * Measurements of one completed frame.
+     */
+    public static class Frame {
+        public final long frameNanos;
+        public final long[] phaseNanos;
+        public final long evaluations;
+        public final long samples;
+        // -1 if the JVM cannot measure allocations per thread
+        public final long allocatedBytes;
+        public final int functionCount;
+        public final int maxDegree;
+        public final double scale;
+
+        Frame(long frameNanos, long[] phaseNanos, long evaluations, long samples, long allocatedBytes,
+              int functionCount, int maxDegree, double scale) {
+            this.frameNanos = frameNanos;
+            this.phaseNanos = phaseNanos;
+            this.evaluations = evaluations;
+            this.samples = samples;
+            this.allocatedBytes = allocatedBytes;
+            this.functionCount = functionCount;
+            this.maxDegree = maxDegree;
+            this.scale = scale;
+        }
+
+        public long phaseNanos(Phase phase) {
+            return phaseNanos[phase.ordinal()];
+        }
+    }
+
+    private static final AtomicInteger instanceCount = new AtomicInteger();
+    private static final Frame EMPTY_FRAME = new Frame(0, new long[Phase.values().length], 0, 0, 0, 0, 0, 0);
+
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    // Only accessed by the render thread
+    private long frameStart;
+    private long lastMark;
+    private long startAllocatedBytes;
+    private long startEvaluations;
+    private long startSamples;
+    private long[] phaseNanos;
+    private RenderFrameEvent event;
+
+    private volatile Frame lastFrame = EMPTY_FRAME;
+    private volatile long frameCount = 0;
+    private volatile long totalFrameNanos = 0;
+    private volatile long maxFrameNanos = 0;
+    private volatile long lastPaintNanos = 0;
+
+    public RenderMetrics() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+            threadBean = sunBean;
+        } else {
+            threadBean = null;
+        }
+    }
+
+    /**
+     * Registers this instance with the platform MBean server, failures only disable the JMX export.
+     */
+    public void registerMBean() {
+        try {
+            ObjectName name = new ObjectName("PolynomialVisualizer:type=RenderMetrics,id=" + instanceCount.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        } catch (JMException | SecurityException e) {
+            System.err.println("Render metrics are not available through JMX: " + e.getMessage());
+        }
+    }
+
+    public void beginFrame(long evaluations, long samples) {
+        event = new RenderFrameEvent();
+        event.begin();
+        frameStart = System.nanoTime();
+        lastMark = frameStart;
+        startAllocatedBytes = allocatedBytes();
+        startEvaluations = evaluations;
+        startSamples = samples;
+        phaseNanos = new long[Phase.values().length];
+    }
+
+    public void mark(Phase phase) {
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - lastMark;
+        lastMark = now;
+    }
+
+    public void endFrame(long evaluations, long samples, int functionCount, int maxDegree, double scale) {
+        long frameNanos = System.nanoTime() - frameStart;
+        long allocated = threadBean == null ? -1 : allocatedBytes() - startAllocatedBytes;
+        Frame frame = new Frame(frameNanos, phaseNanos, evaluations - startEvaluations, samples - startSamples,
+                allocated, functionCount, maxDegree, scale);
+
+        lastFrame = frame;
+        frameCount++;
+        totalFrameNanos += frameNanos;
+        maxFrameNanos = Math.max(maxFrameNanos, frameNanos);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.background = frame.phaseNanos(Phase.BACKGROUND);
+            event.curves = frame.phaseNanos(Phase.CURVES);
+            event.intersections = frame.phaseNanos(Phase.INTERSECTIONS);
+            event.markers = frame.phaseNanos(Phase.MARKERS);
+            event.compose = frame.phaseNanos(Phase.COMPOSE);
+            event.evaluations = frame.evaluations;
+            event.samples = frame.samples;
+            event.allocated = Math.max(0, allocated);
+            event.functions = functionCount;
+            event.maxDegree = maxDegree;
+            event.scale = scale;
+            event.commit();
+        }
+        event = null;
+    }
+
+    /**
+     * Records the time the Swing thread spent painting the last frame onto the panel.
+     */
+    public void recordPaint(long nanos) {
+        lastPaintNanos = nanos;
+    }
+
+    public Frame getLastFrame() {
+        return lastFrame;
+    }
+
+    private long allocatedBytes() {
+        return threadBean == null ? 0 : threadBean.getCurrentThreadAllocatedBytes();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public double getLastFrameMillis() {
+        return millis(lastFrame.frameNanos);
+    }
+
+    @Override
+    public double getAverageFrameMillis() {
+        long frames = frameCount;
+        return frames == 0 ? 0 : millis(totalFrameNanos) / frames;
+    }
+
+    @Override
+    public double getMaxFrameMillis() {
+        return millis(maxFrameNanos);
+    }
+
+    @Override
+    public double getLastBackgroundMillis() {
+        return millis(lastFrame.phaseNanos(Phase.BACKGROUND));
+    }
+
+    @Override
+    public double getLastCurvesMillis() {
+        return millis(lastFrame.phaseNanos(Phase.CURVES));
+    }
+
+    @Override
+    public double getLastIntersectionsMillis() {
+        return millis(lastFrame.phaseNanos(Phase.INTERSECTIONS));
+    }
+
+    @Override
+    public double getLastMarkersMillis() {
+        return millis(lastFrame.phaseNanos(Phase.MARKERS));
+    }
+
+    @Override
+    public double getLastComposeMillis() {
+        return millis(lastFrame.phaseNanos(Phase.COMPOSE));
+    }
+
+    @Override
+    public double getLastPaintMillis() {
+        return millis(lastPaintNanos);
+    }
+
+    @Override
+    public long getLastEvaluations() {
+        return lastFrame.evaluations;
+    }
+
+    @Override
+    public long getLastSamples() {
+        return lastFrame.samples;
+    }
+
+    @Override
+    public long getLastAllocatedBytes() {
+        return lastFrame.allocatedBytes;
+    }
+
+    @Override
+    public int getFunctionCount() {
+        return lastFrame.functionCount;
+    }
+
+    @Override
+    public int getMaxDegree() {
+        return lastFrame.maxDegree;
+    }
+
+    @Override
+    public double getScale() {
+        return lastFrame.scale;
+    }
+
+    @Override
+    public void reset() {
+        // The counters are written by the render thread, a reset racing with a frame may lose that frame
+        frameCount = 0;
+        totalFrameNanos = 0;
+        maxFrameNanos = 0;
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Render statistics of a GraphPanel exposed through JMX. Times are in milliseconds and refer to the last
+ * completed frame unless stated otherwise.
+ */
+public interface RenderMetricsMXBean {
+    long getFrameCount();
+
+    double getLastFrameMillis();
+
+    double getAverageFrameMillis();
+
+    double getMaxFrameMillis();
+
+    double getLastBackgroundMillis();
+
+    double getLastCurvesMillis();
+
+    double getLastIntersectionsMillis();
+
+    double getLastMarkersMillis();
+
+    double getLastComposeMillis();
+
+    double getLastPaintMillis();
+
+    long getLastEvaluations();
+
+    long getLastSamples();
+
+    long getLastAllocatedBytes();
+
+    int getFunctionCount();
+
+    int getMaxDegree();
+
+    double getScale();
+
+    void reset();
+}
@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A data set loaded from a SampleFile: the least-squares polynomial of a chosen degree through its samples and
+ * their density grid for drawing. Loading reads the file three times in parallel chunks: for the bounding box that
+ * the scaling of the fit and the bins of the grid depend on, for the fit and the grid together, and for the residual
+ * of the fitted function as it is plotted.
+ */
+public class SampleData {
+    public final Path path;
+    public final long sampleCount;
+    public final long skippedLines;
+    public final PolynomialFunction fit;
+    public final double rmsResidual;
+    public final DensityGrid density;
+
+    private static class Bounds {
+        double minX = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        long count = 0;
+
+        void add(double x, double y) {
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            count++;
+        }
+
+        Bounds merge(Bounds other) {
+            minX = Math.min(minX, other.minX);
+            maxX = Math.max(maxX, other.maxX);
+            minY = Math.min(minY, other.minY);
+            maxY = Math.max(maxY, other.maxY);
+            count += other.count;
+            return this;
+        }
+    }
+
+    private static class Accumulator {
+        final LeastSquaresFit fit;
+        final DensityGrid density;
+
+        Accumulator(int degree, Bounds bounds) {
+            fit = new LeastSquaresFit(degree, bounds.minX, bounds.maxX);
+            density = new DensityGrid(bounds.minX, bounds.maxX, bounds.minY, bounds.maxY,
+                    DensityGrid.DEFAULT_BINS, DensityGrid.DEFAULT_BINS);
+        }
+
+        void add(double x, double y) {
+            fit.add(x, y);
+            density.add(x, y);
+        }
+
+        Accumulator merge(Accumulator other) {
+            fit.merge(other.fit);
+            density.merge(other.density);
+            return this;
+        }
+    }
+
+    private static class Residual {
+        double sumOfSquares = 0;
+        long count = 0;
+
+        Residual merge(Residual other) {
+            sumOfSquares += other.sumOfSquares;
+            count += other.count;
+            return this;
+        }
+    }
+
+    private SampleData(Path path, long sampleCount, long skippedLines, PolynomialFunction fit, double rmsResidual,
+                       DensityGrid density) {
+        this.path = path;
+        this.sampleCount = sampleCount;
+        this.skippedLines = skippedLines;
+        this.fit = fit;
+        this.rmsResidual = rmsResidual;
+        this.density = density;
+    }
+
+    public static SampleData load(Path path, int degree) throws IOException {
+        if (degree < 0 || degree > LeastSquaresFit.MAX_DEGREE) {
+            throw new IllegalArgumentException("The degree must be between 0 and " + LeastSquaresFit.MAX_DEGREE + ": " + degree);
+        }
+        SampleFile file = new SampleFile(path);
+        Bounds bounds = file.reduce(Bounds::new, Bounds::add, Bounds::merge);
+        if (bounds.count == 0) {
+            throw new IllegalArgumentException("No x/y samples found in " + path.getFileName());
+        }
+        Accumulator accumulator = file.reduce(() -> new Accumulator(degree, bounds), Accumulator::add, Accumulator::merge);
+        long skippedLines = file.getSkippedLines();
+        PolynomialFunction fit = accumulator.fit.solve();
+        Residual residual = file.reduce(Residual::new, (sum, x, y) -> {
+            double difference = y - fit.evaluate(x).y;
+            sum.sumOfSquares += difference * difference;
+            sum.count++;
+        }, Residual::merge);
+        return new SampleData(path, bounds.count, skippedLines, fit, Math.sqrt(residual.sumOfSquares / residual.count),
+                accumulator.density);
+    }
+}
@@ -0,0 +1,232 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * Text file of x/y samples, one per line, separated by commas, semicolons, tabs or spaces. Further columns are
+ * ignored and lines that do not start with two finite numbers, like a header, are skipped.
+ * The file is memory-mapped in chunks of {@value #CHUNK_SIZE} bytes that are parsed in parallel, so files larger
+ * than the heap or the 2 GB limit of a single mapping can be read. A line belongs to the chunk its first byte is in.
+ */
+public final class SampleFile {
+    /**
+     * Receives the samples of one chunk into an accumulator owned by that chunk.
+     */
+    public interface SampleConsumer<A> {
+        void accept(A accumulator, double x, double y);
+    }
+
+    private static final long CHUNK_SIZE = 64L << 20;
+    // Lines may continue this far past the end of their chunk, longer lines are cut off there
+    private static final int MAX_LINE_LENGTH = 1 << 16;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Path path;
+    private final long size;
+    private final LongAdder skippedLines = new LongAdder();
+
+    public SampleFile(Path path) throws IOException {
+        this.path = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.size = channel.size();
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of lines the last {@link #reduce} skipped.
+     */
+    public long getSkippedLines() {
+        return skippedLines.sum();
+    }
+
+    /**
+     * Feeds all samples to the consumer, with one accumulator per chunk, and combines the accumulators of the
+     * chunks in file order.
+     */
+    public <A> A reduce(Supplier<A> create, SampleConsumer<A> consumer, BinaryOperator<A> combine) throws IOException {
+        skippedLines.reset();
+        long chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return LongStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> {
+                        A accumulator = create.get();
+                        parseChunk(channel, chunk * CHUNK_SIZE, accumulator, consumer);
+                        return accumulator;
+                    })
+                    .reduce(combine)
+                    .orElseGet(create);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private <A> void parseChunk(FileChannel channel, long start, A accumulator, SampleConsumer<A> consumer) {
+        // The mapping starts one byte early to see whether the chunk starts at the beginning of a line
+        long mapStart = Math.max(0, start - 1);
+        long end = Math.min(size, start + CHUNK_SIZE);
+        long mapEnd = Math.min(size, end + MAX_LINE_LENGTH);
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Parser parser = new Parser(buffer, (int) (mapEnd - mapStart));
+        if (start > 0) {
+            parser.skipLine();
+        }
+        int limit = (int) (end - mapStart);
+        long skipped = 0;
+        while (parser.position < limit) {
+            if (parser.parseSample()) {
+                consumer.accept(accumulator, parser.x, parser.y);
+            } else if (!parser.blankLine) {
+                skipped++;
+            }
+            parser.skipLine();
+        }
+        skippedLines.add(skipped);
+    }
+
+    /**
+     * Parses the mapped bytes of one chunk. Numbers with small exponents are converted without creating a String,
+     * exactly for up to 15 significant digits and within one ulp beyond. Others fall back to Double.parseDouble.
+     */
+    private static class Parser {
+        final MappedByteBuffer buffer;
+        final int limit;
+        int position = 0;
+        double x;
+        double y;
+        boolean blankLine;
+
+        Parser(MappedByteBuffer buffer, int limit) {
+            this.buffer = buffer;
+            this.limit = limit;
+        }
+
+        void skipLine() {
+            while (position < limit && buffer.get(position++) != '\n') {
+            }
+        }
+
+        boolean parseSample() {
+            skipSeparators();
+            blankLine = position >= limit || buffer.get(position) == '\n' || buffer.get(position) == '\r';
+            x = parseNumber();
+            skipSeparators();
+            y = parseNumber();
+            return Double.isFinite(x) && Double.isFinite(y);
+        }
+
+        private void skipSeparators() {
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b != ' ' && b != '\t' && b != ',' && b != ';') {
+                    return;
+                }
+                position++;
+            }
+        }
+
+        /**
+         * Parses a decimal number at the current position, or returns NaN and leaves the position on the first
+         * byte that does not fit.
+         */
+        private double parseNumber() {
+            int start = position;
+            boolean negative = false;
+            if (position < limit && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+                negative = buffer.get(position) == '-';
+                position++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int exponent = 0;
+            boolean anyDigit = false;
+            while (position < limit && isDigit(buffer.get(position))) {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (buffer.get(position) - '0');
+                    digits += mantissa == 0 ? 0 : 1;
+                } else {
+                    exponent++;
+                }
+                anyDigit = true;
+                position++;
+            }
+            if (position < limit && buffer.get(position) == '.') {
+                position++;
+                while (position < limit && isDigit(buffer.get(position))) {
+                    if (digits < 18) {
+                        mantissa = mantissa * 10 + (buffer.get(position) - '0');
+                        digits += mantissa == 0 ? 0 : 1;
+                        exponent--;
+                    }
+                    anyDigit = true;
+                    position++;
+                }
+            }
+            if (!anyDigit) {
+                return Double.NaN;
+            }
+            if (position < limit && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+                int exponentStart = position++;
+                boolean negativeExponent = false;
+                if (position < limit && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+                    negativeExponent = buffer.get(position) == '-';
+                    position++;
+                }
+                if (position >= limit || !isDigit(buffer.get(position))) {
+                    position = exponentStart;
+                    return Double.NaN;
+                }
+                int value = 0;
+                while (position < limit && isDigit(buffer.get(position))) {
+                    value = Math.min(100_000, value * 10 + (buffer.get(position) - '0'));
+                    position++;
+                }
+                exponent += negativeExponent ? -value : value;
+            }
+
+            double result;
+            if (Math.abs(exponent) < POWERS_OF_TEN.length) {
+                // Up to 15 digits both operands are exact and the single rounding of the product or quotient is
+                // correct, longer mantissas are rounded once more, which is still within one ulp
+                result = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            } else {
+                byte[] text = new byte[position - start];
+                buffer.get(start, text);
+                result = Math.abs(Double.parseDouble(new String(text, StandardCharsets.US_ASCII)));
+            }
+            return negative ? -result : result;
+        }
+
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+    }
+}
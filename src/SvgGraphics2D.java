@@ -0,0 +1,500 @@
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.text.AttributedCharacterIterator;
+import java.util.Map;
+
+/**
+ * Graphics2D that records shapes and text as SVG elements, so the GraphRenderer can draw vector output without a
+ * display. Only solid colours and BasicStroke widths are kept; images, clipping, composites and XOR mode are
+ * ignored since the renderer does not use them. Graphics created from an instance append to the same document.
+ */
+public class SvgGraphics2D extends Graphics2D {
+    private final StringBuilder document;
+    private final int width;
+    private final int height;
+    // Only used to measure text
+    private final Graphics2D metricsGraphics;
+    private AffineTransform transform = new AffineTransform();
+    private Color colour = Color.BLACK;
+    private Color background = Color.BLACK;
+    private Stroke stroke = new BasicStroke();
+    private Font font = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+    private Shape clip = null;
+    private final RenderingHints hints = new RenderingHints(null);
+
+    public SvgGraphics2D(int width, int height) {
+        this(new StringBuilder(), width, height,
+                new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics());
+    }
+
+    private SvgGraphics2D(StringBuilder document, int width, int height, Graphics2D metricsGraphics) {
+        this.document = document;
+        this.width = width;
+        this.height = height;
+        this.metricsGraphics = metricsGraphics;
+    }
+
+    /**
+     * Returns the complete SVG document with everything drawn so far.
+     */
+    public String toSvg() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height
+                + "\" viewBox=\"0 0 " + width + " " + height + "\">\n"
+                + document
+                + "</svg>\n";
+    }
+
+    @Override
+    public void draw(Shape shape) {
+        document.append("<path d=\"");
+        appendPath(transform.createTransformedShape(shape));
+        document.append("\" fill=\"none\"");
+        appendColour("stroke");
+        float strokeWidth = stroke instanceof BasicStroke basicStroke ? basicStroke.getLineWidth() : 1f;
+        document.append(" stroke-width=\"").append(strokeWidth).append("\"/>\n");
+    }
+
+    @Override
+    public void fill(Shape shape) {
+        document.append("<path d=\"");
+        appendPath(transform.createTransformedShape(shape));
+        document.append('"');
+        appendColour("fill");
+        document.append("/>\n");
+    }
+
+    private void appendPath(Shape shape) {
+        double[] coordinates = new double[6];
+        for (PathIterator iterator = shape.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+            switch (iterator.currentSegment(coordinates)) {
+                case PathIterator.SEG_MOVETO -> appendSegment('M', coordinates, 1);
+                case PathIterator.SEG_LINETO -> appendSegment('L', coordinates, 1);
+                case PathIterator.SEG_QUADTO -> appendSegment('Q', coordinates, 2);
+                case PathIterator.SEG_CUBICTO -> appendSegment('C', coordinates, 3);
+                case PathIterator.SEG_CLOSE -> document.append('Z');
+            }
+        }
+    }
+
+    private void appendSegment(char command, double[] coordinates, int points) {
+        document.append(command);
+        for (int i = 0; i < 2 * points; i++) {
+            if (i > 0) {
+                document.append(' ');
+            }
+            appendNumber(coordinates[i]);
+        }
+    }
+
+    private void appendNumber(double value) {
+        // Hundredths of a pixel are plenty and keep long polylines compact
+        long hundredths = Math.round(value * 100);
+        if (hundredths % 100 == 0) {
+            document.append(hundredths / 100);
+        } else {
+            document.append(hundredths / 100.0);
+        }
+    }
+
+    private void appendColour(String attribute) {
+        document.append(' ').append(attribute).append("=\"")
+                .append(String.format("#%06x", colour.getRGB() & 0xFFFFFF)).append('"');
+        if (colour.getAlpha() < 255) {
+            document.append(' ').append(attribute).append("-opacity=\"")
+                    .append(colour.getAlpha() / 255f).append('"');
+        }
+    }
+
+    @Override
+    public void drawString(String text, float x, float y) {
+        Point2D position = transform.transform(new Point2D.Float(x, y), null);
+        document.append("<text x=\"");
+        appendNumber(position.getX());
+        document.append("\" y=\"");
+        appendNumber(position.getY());
+        document.append("\" font-family=\"").append(escape(font.getFamily())).append("\" font-size=\"")
+                .append(font.getSize2D()).append('"');
+        if (font.isBold()) {
+            document.append(" font-weight=\"bold\"");
+        }
+        if (font.isItalic()) {
+            document.append(" font-style=\"italic\"");
+        }
+        appendColour("fill");
+        document.append('>').append(escape(text)).append("</text>\n");
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    @Override
+    public void drawString(String text, int x, int y) {
+        drawString(text, (float) x, (float) y);
+    }
+
+    @Override
+    public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+        drawString(iterator, (float) x, (float) y);
+    }
+
+    @Override
+    public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+        StringBuilder text = new StringBuilder();
+        for (char c = iterator.first(); c != AttributedCharacterIterator.DONE; c = iterator.next()) {
+            text.append(c);
+        }
+        drawString(text.toString(), x, y);
+    }
+
+    @Override
+    public void drawGlyphVector(GlyphVector glyphs, float x, float y) {
+        fill(glyphs.getOutline(x, y));
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        draw(new Line2D.Double(x1, y1, x2, y2));
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height) {
+        fill(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public void clearRect(int x, int y, int width, int height) {
+        Color previous = colour;
+        colour = background;
+        fillRect(x, y, width, height);
+        colour = previous;
+    }
+
+    @Override
+    public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+        draw(new RoundRectangle2D.Double(x, y, width, height, arcWidth, arcHeight));
+    }
+
+    @Override
+    public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+        fill(new RoundRectangle2D.Double(x, y, width, height, arcWidth, arcHeight));
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        draw(new Ellipse2D.Double(x, y, width, height));
+    }
+
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        fill(new Ellipse2D.Double(x, y, width, height));
+    }
+
+    @Override
+    public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+        draw(new Arc2D.Double(x, y, width, height, startAngle, arcAngle, Arc2D.OPEN));
+    }
+
+    @Override
+    public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+        fill(new Arc2D.Double(x, y, width, height, startAngle, arcAngle, Arc2D.PIE));
+    }
+
+    @Override
+    public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+        if (nPoints < 2) {
+            return;
+        }
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(xPoints[0], yPoints[0]);
+        for (int i = 1; i < nPoints; i++) {
+            path.lineTo(xPoints[i], yPoints[i]);
+        }
+        draw(path);
+    }
+
+    @Override
+    public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+        draw(new Polygon(xPoints, yPoints, nPoints));
+    }
+
+    @Override
+    public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+        fill(new Polygon(xPoints, yPoints, nPoints));
+    }
+
+    @Override
+    public boolean hit(Rectangle rect, Shape shape, boolean onStroke) {
+        Shape target = onStroke ? stroke.createStrokedShape(shape) : shape;
+        return transform.createTransformedShape(target).intersects(rect);
+    }
+
+    @Override
+    public Graphics create() {
+        SvgGraphics2D copy = new SvgGraphics2D(document, width, height, metricsGraphics);
+        copy.transform = new AffineTransform(transform);
+        copy.colour = colour;
+        copy.background = background;
+        copy.stroke = stroke;
+        copy.font = font;
+        copy.clip = clip;
+        copy.hints.putAll(hints);
+        return copy;
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @Override
+    public Color getColor() {
+        return colour;
+    }
+
+    @Override
+    public void setColor(Color colour) {
+        if (colour != null) {
+            this.colour = colour;
+        }
+    }
+
+    @Override
+    public void setPaint(Paint paint) {
+        if (paint instanceof Color paintColour) {
+            colour = paintColour;
+        }
+    }
+
+    @Override
+    public Paint getPaint() {
+        return colour;
+    }
+
+    @Override
+    public void setBackground(Color colour) {
+        background = colour;
+    }
+
+    @Override
+    public Color getBackground() {
+        return background;
+    }
+
+    @Override
+    public void setStroke(Stroke stroke) {
+        this.stroke = stroke;
+    }
+
+    @Override
+    public Stroke getStroke() {
+        return stroke;
+    }
+
+    @Override
+    public Font getFont() {
+        return font;
+    }
+
+    @Override
+    public void setFont(Font font) {
+        if (font != null) {
+            this.font = font;
+        }
+    }
+
+    @Override
+    public FontMetrics getFontMetrics(Font font) {
+        return metricsGraphics.getFontMetrics(font);
+    }
+
+    @Override
+    public FontRenderContext getFontRenderContext() {
+        return metricsGraphics.getFontRenderContext();
+    }
+
+    @Override
+    public void setPaintMode() {
+    }
+
+    @Override
+    public void setXORMode(Color colour) {
+    }
+
+    @Override
+    public void setComposite(Composite composite) {
+    }
+
+    @Override
+    public Composite getComposite() {
+        return AlphaComposite.SrcOver;
+    }
+
+    @Override
+    public GraphicsConfiguration getDeviceConfiguration() {
+        return metricsGraphics.getDeviceConfiguration();
+    }
+
+    @Override
+    public void setRenderingHint(RenderingHints.Key key, Object value) {
+        hints.put(key, value);
+    }
+
+    @Override
+    public Object getRenderingHint(RenderingHints.Key key) {
+        return hints.get(key);
+    }
+
+    @Override
+    public void setRenderingHints(Map<?, ?> hints) {
+        this.hints.clear();
+        this.hints.putAll(hints);
+    }
+
+    @Override
+    public void addRenderingHints(Map<?, ?> hints) {
+        this.hints.putAll(hints);
+    }
+
+    @Override
+    public RenderingHints getRenderingHints() {
+        return (RenderingHints) hints.clone();
+    }
+
+    @Override
+    public void translate(int x, int y) {
+        transform.translate(x, y);
+    }
+
+    @Override
+    public void translate(double x, double y) {
+        transform.translate(x, y);
+    }
+
+    @Override
+    public void rotate(double theta) {
+        transform.rotate(theta);
+    }
+
+    @Override
+    public void rotate(double theta, double x, double y) {
+        transform.rotate(theta, x, y);
+    }
+
+    @Override
+    public void scale(double sx, double sy) {
+        transform.scale(sx, sy);
+    }
+
+    @Override
+    public void shear(double shx, double shy) {
+        transform.shear(shx, shy);
+    }
+
+    @Override
+    public void transform(AffineTransform transform) {
+        this.transform.concatenate(transform);
+    }
+
+    @Override
+    public void setTransform(AffineTransform transform) {
+        this.transform = new AffineTransform(transform);
+    }
+
+    @Override
+    public AffineTransform getTransform() {
+        return new AffineTransform(transform);
+    }
+
+    @Override
+    public Shape getClip() {
+        return clip;
+    }
+
+    @Override
+    public Rectangle getClipBounds() {
+        return clip == null ? null : clip.getBounds();
+    }
+
+    @Override
+    public void clipRect(int x, int y, int width, int height) {
+        clip(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public void setClip(int x, int y, int width, int height) {
+        setClip(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public void setClip(Shape clip) {
+        this.clip = clip == null ? null : transform.createTransformedShape(clip);
+    }
+
+    @Override
+    public void clip(Shape shape) {
+        Area area = new Area(transform.createTransformedShape(shape));
+        if (clip != null) {
+            area.intersect(new Area(clip));
+        }
+        clip = area;
+    }
+
+    @Override
+    public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+    }
+
+    @Override
+    public boolean drawImage(Image image, AffineTransform transform, ImageObserver observer) {
+        return false;
+    }
+
+    @Override
+    public void drawImage(BufferedImage image, BufferedImageOp op, int x, int y) {
+    }
+
+    @Override
+    public void drawRenderedImage(RenderedImage image, AffineTransform transform) {
+    }
+
+    @Override
+    public void drawRenderableImage(RenderableImage image, AffineTransform transform) {
+    }
+
+    @Override
+    public boolean drawImage(Image image, int x, int y, ImageObserver observer) {
+        return false;
+    }
+
+    @Override
+    public boolean drawImage(Image image, int x, int y, int width, int height, ImageObserver observer) {
+        return false;
+    }
+
+    @Override
+    public boolean drawImage(Image image, int x, int y, Color background, ImageObserver observer) {
+        return false;
+    }
+
+    @Override
+    public boolean drawImage(Image image, int x, int y, int width, int height, Color background, ImageObserver observer) {
+        return false;
+    }
+
+    @Override
+    public boolean drawImage(Image image, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2, ImageObserver observer) {
+        return false;
+    }
+
+    @Override
+    public boolean drawImage(Image image, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2, Color background, ImageObserver observer) {
+        return false;
+    }
+}
@@ -0,0 +1,295 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-resolution cache of rendered curve tiles. A tile holds all curves of one function set version in a square
+ * of {@value #TILE_SIZE} world pixels at one scale, where world pixels are screen pixels relative to the origin,
+ * so the tiles of a scale line up for every pan offset.
+ * Missing tiles are rendered on background workers, tiles visible in the current frame before prefetched ones.
+ * When functions were only added, a tile of the new version starts from the tile of the previous version and
+ * only draws the new functions. The least recently used tiles are evicted above the memory cap.
+ */
+public class TileCache {
+    public static final int TILE_SIZE = 256;
+    private static final long TILE_BYTES = (long) TILE_SIZE * TILE_SIZE * Integer.BYTES;
+    private static final int VISIBLE = 0;
+    private static final int PREFETCH = 1;
+    // Requests that were not wanted by any of the last frames are dropped when they reach a worker
+    private static final int STALE_FRAMES = 2;
+
+    private record TileKey(int version, double scale, long x, long y) {
+    }
+
+    private class TileTask implements Runnable, Comparable<TileTask> {
+        final TileKey key;
+        final List<FunctionEntry> functions;
+        final int priority;
+        final long sequence;
+        volatile long wantedFrame;
+
+        TileTask(TileKey key, List<FunctionEntry> functions, int priority, long frame) {
+            this.key = key;
+            this.functions = functions;
+            this.priority = priority;
+            this.sequence = sequenceCount.incrementAndGet();
+            this.wantedFrame = frame;
+        }
+
+        @Override
+        public int compareTo(TileTask other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(other.sequence, sequence);
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (wantedFrame >= frame.get() - STALE_FRAMES && get(key) == null) {
+                    put(key, render(key, functions));
+                    completedCount.incrementAndGet();
+                    onTileReady.run();
+                }
+            } finally {
+                pending.remove(key, this);
+            }
+        }
+    }
+
+    private final Map<TileKey, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<TileKey, TileTask> pending = new ConcurrentHashMap<>();
+    // For versions that only added functions: the previous version and the index of the first new function
+    private final Map<Integer, int[]> appendedVersions = new ConcurrentHashMap<>();
+    // Each version is noted in a later frame than the one before, so requests for versions before the last
+    // STALE_FRAMES + 1 are stale and their entries are dropped. A tile without an entry draws all its functions.
+    private final Deque<Integer> notedVersions = new ArrayDeque<>();
+    private final ThreadPoolExecutor workers;
+    private final ThreadLocal<GraphRenderer> renderers = ThreadLocal.withInitial(GraphRenderer::new);
+    private final Runnable onTileReady;
+    private final AtomicLong frame = new AtomicLong();
+    private final AtomicLong sequenceCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final LongAdder evaluationCount = new LongAdder();
+    private final LongAdder drawnPointCount = new LongAdder();
+    private volatile long memoryCap;
+    private long bytes = 0;
+    private int lastVersion = -1;
+    private List<FunctionEntry> lastFunctions = List.of();
+
+    /**
+     * @param onTileReady called on a worker thread whenever a tile was rendered
+     */
+    public TileCache(int threads, long memoryCap, Runnable onTileReady) {
+        this.memoryCap = memoryCap;
+        this.onTileReady = onTileReady;
+        AtomicInteger workerCount = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "tile-render-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    public void setMemoryCap(long memoryCap) {
+        this.memoryCap = memoryCap;
+        synchronized (this) {
+            evict();
+        }
+    }
+
+    public long getMemoryCap() {
+        return memoryCap;
+    }
+
+    /**
+     * Returns the number of tiles rendered so far, which changes whenever new tiles can be drawn.
+     */
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    /**
+     * Returns the number of function evaluations of all workers so far.
+     */
+    public long getEvaluationCount() {
+        return evaluationCount.sum();
+    }
+
+    /**
+     * Returns the number of polyline points all workers have drawn so far.
+     */
+    public long getDrawnPointCount() {
+        return drawnPointCount.sum();
+    }
+
+    public synchronized int size() {
+        return tiles.size();
+    }
+
+    /**
+     * Draws the cached tiles covering the viewport, requests the missing ones and returns their screen rectangles.
+     * Must only be called from one thread, which is the render thread of the GraphPanel.
+     */
+    public List<Rectangle> drawTiles(Graphics2D g2d, Viewport viewport, int version, List<FunctionEntry> functions) {
+        long currentFrame = frame.incrementAndGet();
+        noteVersion(version, functions);
+        List<Rectangle> missing = new ArrayList<>();
+        if (functions.isEmpty()) {
+            return missing;
+        }
+
+        int zeroX = viewport.zeroX();
+        int zeroY = viewport.zeroY();
+        for (long y = Math.floorDiv(-zeroY, TILE_SIZE); y <= Math.floorDiv(viewport.height - 1 - zeroY, TILE_SIZE); y++) {
+            for (long x = Math.floorDiv(-zeroX, TILE_SIZE); x <= Math.floorDiv(viewport.width - 1 - zeroX, TILE_SIZE); x++) {
+                TileKey key = new TileKey(version, viewport.scale, x, y);
+                int screenX = (int) (x * TILE_SIZE + zeroX);
+                int screenY = (int) (y * TILE_SIZE + zeroY);
+                BufferedImage tile = get(key);
+                if (tile != null) {
+                    g2d.drawImage(tile, screenX, screenY, null);
+                } else {
+                    request(key, functions, VISIBLE, currentFrame);
+                    missing.add(new Rectangle(screenX, screenY, TILE_SIZE, TILE_SIZE));
+                }
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Requests the row or column of tiles next to the viewport in the direction the view is moving to, given by
+     * the signs of directionX and directionY in world pixels.
+     */
+    public void prefetch(Viewport viewport, int version, List<FunctionEntry> functions, int directionX, int directionY) {
+        if (functions.isEmpty()) {
+            return;
+        }
+        long currentFrame = frame.get();
+        int zeroX = viewport.zeroX();
+        int zeroY = viewport.zeroY();
+        long firstX = Math.floorDiv(-zeroX, TILE_SIZE);
+        long lastX = Math.floorDiv(viewport.width - 1 - zeroX, TILE_SIZE);
+        long firstY = Math.floorDiv(-zeroY, TILE_SIZE);
+        long lastY = Math.floorDiv(viewport.height - 1 - zeroY, TILE_SIZE);
+
+        if (directionX != 0) {
+            long x = directionX > 0 ? lastX + 1 : firstX - 1;
+            for (long y = firstY; y <= lastY; y++) {
+                request(new TileKey(version, viewport.scale, x, y), functions, PREFETCH, currentFrame);
+            }
+        }
+        if (directionY != 0) {
+            long y = directionY > 0 ? lastY + 1 : firstY - 1;
+            for (long x = firstX; x <= lastX; x++) {
+                request(new TileKey(version, viewport.scale, x, y), functions, PREFETCH, currentFrame);
+            }
+        }
+    }
+
+    private void noteVersion(int version, List<FunctionEntry> functions) {
+        if (version == lastVersion) {
+            return;
+        }
+        if (lastVersion >= 0 && isExtensionOf(functions, lastFunctions)) {
+            appendedVersions.put(version, new int[]{lastVersion, lastFunctions.size()});
+        }
+        lastVersion = version;
+        lastFunctions = functions;
+        notedVersions.addLast(version);
+        if (notedVersions.size() > STALE_FRAMES + 1) {
+            appendedVersions.remove(notedVersions.removeFirst());
+        }
+    }
+
+    static boolean isExtensionOf(List<FunctionEntry> functions, List<FunctionEntry> previous) {
+        if (functions.size() <= previous.size()) {
+            return false;
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            if (functions.get(i) != previous.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void request(TileKey key, List<FunctionEntry> functions, int priority, long currentFrame) {
+        TileTask task = pending.get(key);
+        if (task != null && task.priority <= priority) {
+            task.wantedFrame = currentFrame;
+            return;
+        }
+        if (task == null && get(key) != null) {
+            return;
+        }
+        // A prefetched tile that became visible is queued again with the higher priority, the first one to run wins
+        task = new TileTask(key, functions, priority, currentFrame);
+        pending.put(key, task);
+        workers.execute(task);
+    }
+
+    private BufferedImage render(TileKey key, List<FunctionEntry> functions) {
+        BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            int firstFunction = 0;
+            int[] appended = appendedVersions.get(key.version);
+            BufferedImage base = appended == null ? null : get(new TileKey(appended[0], key.scale, key.x, key.y));
+            if (base != null) {
+                g2d.drawImage(base, 0, 0, null);
+                firstFunction = appended[1];
+            }
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            GraphRenderer renderer = renderers.get();
+            long evaluations = renderer.getEvaluationCount();
+            long points = renderer.getDrawnPointCount();
+            for (int i = firstFunction; i < functions.size(); i++) {
+                FunctionEntry entry = functions.get(i);
+                renderer.drawFunctionTile(g2d, entry.function, entry.colour, (double) key.x * TILE_SIZE,
+                        (double) key.y * TILE_SIZE, TILE_SIZE, key.scale);
+            }
+            evaluationCount.add(renderer.getEvaluationCount() - evaluations);
+            drawnPointCount.add(renderer.getDrawnPointCount() - points);
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
+    private synchronized BufferedImage get(TileKey key) {
+        return tiles.get(key);
+    }
+
+    private synchronized void put(TileKey key, BufferedImage tile) {
+        if (tiles.put(key, tile) == null) {
+            bytes += TILE_BYTES;
+        }
+        evict();
+    }
+
+    private void evict() {
+        Iterator<BufferedImage> iterator = tiles.values().iterator();
+        while (bytes > memoryCap && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            bytes -= TILE_BYTES;
+        }
+    }
+}
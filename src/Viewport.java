@@ -0,0 +1,82 @@
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the view transform of a GraphPanel, so frames can be rendered outside the Swing thread.
+ */
+public class Viewport {
+    public final int width;
+    public final int height;
+    public final double offsetX;
+    public final double offsetY;
+    public final double scale;
+
+    public Viewport(int width, int height, Vector2D offset, double scale) {
+        this.width = width;
+        this.height = height;
+        this.offsetX = offset.x;
+        this.offsetY = offset.y;
+        this.scale = scale;
+    }
+
+    public int zeroX() {
+        return width / 2 + (int) (offsetX * scale);
+    }
+
+    public int zeroY() {
+        return height / 2 - (int) (offsetY * scale);
+    }
+
+    public double minX() {
+        return (0 - zeroX()) / scale;
+    }
+
+    public double maxX() {
+        return (width - zeroX()) / scale;
+    }
+
+    public Vector2D toScreenCoordinates(Vector2D position) {
+        int screenX = zeroX() + (int) (position.x * scale);
+        int screenY = zeroY() - (int) (position.y * scale);
+
+        return new Vector2D(screenX, screenY);
+    }
+
+    public Vector2D toWorldCoordinates(Vector2D position) {
+        double x = (position.x - zeroX()) / scale;
+        double y = (zeroY() - position.y) / scale;
+
+        return new Vector2D(x, y);
+    }
+
+    public double gridStep() {
+        double step = 1.0;
+        while (scale * step < 20) {
+            step *= 2;
+        }
+        while (scale * step > 100) {
+            step /= 2;
+        }
+        return step;
+    }
+
+    public boolean hasSameSize(Viewport other) {
+        return other != null && width == other.width && height == other.height;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Viewport viewport)) {
+            return false;
+        }
+        return width == viewport.width && height == viewport.height && offsetX == viewport.offsetX
+                && offsetY == viewport.offsetY && scale == viewport.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(width, height, offsetX, offsetY, scale);
+    }
+}
@@ -0,0 +1,398 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Binary file with the functions of a GraphPanel, their analysis, the intersections between them and the view.
+ * All numbers are little-endian and every section starts at a multiple of 8 bytes:
+ * <pre>
+ * header        magic "PVWS", version, function count, 0, offset x, offset y, zoom,
+ *               intersection count, intersection offset, 0                                   64 bytes
+ * index         per function: data offset, term count, root count, extreme count,
+ *               text length, evaluation mode, flags, 6 bytes 0                               32 bytes each
+ * data          per function: coefficients, exponents | root x, multiplicities |
+ *               extreme x, extreme y, types | function string as UTF-8
+ * intersections x of all intersections in ascending order, then their y
+ * </pre>
+ * Opening maps the file and only decodes the index, the terms and the function strings. The roots and extreme
+ * points of a function are read on their first use and the intersections by binary search over the visible
+ * interval, so workspaces with thousands of functions open without repeating any root search.
+ */
+public final class WorkspaceFile {
+    private static final int MAGIC = 0x53575650;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int INDEX_ENTRY_SIZE = 32;
+    private static final int ANALYSED = 1;
+    // The expression of the function is factored, so the function is parsed again from its string
+    private static final int FACTORED = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public final Path path;
+    public final Vector2D offset;
+    public final double zoom;
+    public final List<PolynomialFunction> functions;
+    private final MappedByteBuffer buffer;
+    private final int intersectionCount;
+    private final int intersectionsOffset;
+
+    private WorkspaceFile(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        int size = buffer.capacity();
+        if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a workspace file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported workspace version " + buffer.getInt(4));
+        }
+        int functionCount = buffer.getInt(8);
+        offset = new Vector2D(buffer.getDouble(16), buffer.getDouble(24));
+        zoom = buffer.getDouble(32);
+        long intersectionCount = buffer.getLong(40);
+        long intersectionsOffset = buffer.getLong(48);
+        long indexEnd = HEADER_SIZE + (long) INDEX_ENTRY_SIZE * functionCount;
+        if (functionCount < 0 || indexEnd > size || !Double.isFinite(offset.x) || !Double.isFinite(offset.y)
+                || !(zoom > 0) || intersectionCount < 0 || intersectionsOffset < indexEnd
+                || intersectionsOffset % 8 != 0 || intersectionsOffset + 16 * intersectionCount > size) {
+            throw new IOException("Corrupt workspace header");
+        }
+        this.intersectionCount = (int) intersectionCount;
+        this.intersectionsOffset = (int) intersectionsOffset;
+
+        List<PolynomialFunction> functions = new ArrayList<>(functionCount);
+        for (int i = 0; i < functionCount; i++) {
+            functions.add(readFunction(HEADER_SIZE + i * INDEX_ENTRY_SIZE, indexEnd, size));
+        }
+        this.functions = List.copyOf(functions);
+    }
+
+    /**
+     * Maps the file and decodes its functions, see the class comment for what is read later.
+     */
+    public static WorkspaceFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Workspace files are limited to 2 GB");
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new WorkspaceFile(path, buffer);
+        }
+    }
+
+    private PolynomialFunction readFunction(int entry, long indexEnd, int size) throws IOException {
+        long dataOffset = buffer.getLong(entry);
+        int termCount = buffer.getInt(entry + 8);
+        int rootCount = buffer.getInt(entry + 12);
+        int extremeCount = buffer.getInt(entry + 16);
+        int textLength = buffer.getInt(entry + 20);
+        int mode = buffer.get(entry + 24);
+        int flags = buffer.get(entry + 25);
+        if (dataOffset < indexEnd || dataOffset % 8 != 0 || termCount < 0 || rootCount < 0 || extremeCount < 0
+                || textLength < 0 || mode < 0 || mode >= EvaluationMode.values().length
+                || dataOffset + dataSize(termCount, rootCount, extremeCount, textLength) > size) {
+            throw new IOException("Corrupt workspace index entry " + (entry - HEADER_SIZE) / INDEX_ENTRY_SIZE);
+        }
+        int terms = (int) dataOffset;
+        int roots = terms + (int) align(12L * termCount);
+        int extremes = roots + (int) align(12L * rootCount);
+        int text = extremes + (int) align(17L * extremeCount);
+        for (int i = 0; i < extremeCount; i++) {
+            int type = buffer.get(extremes + 16 * extremeCount + i);
+            if (type < 0 || type >= ExtremePoint.Type.values().length) {
+                throw new IOException("Corrupt extreme point in workspace");
+            }
+        }
+
+        byte[] bytes = new byte[textLength];
+        buffer.get(text, bytes);
+        String functionString;
+        try {
+            functionString = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+        } catch (CharacterCodingException e) {
+            throw new IOException("Corrupt function string in workspace", e);
+        }
+
+        PolynomialFunction function;
+        try {
+            if ((flags & FACTORED) != 0) {
+                function = new PolynomialFunction(functionString);
+            } else {
+                int[] exponents = new int[termCount];
+                double[] coefficients = new double[termCount];
+                for (int i = 0; i < termCount; i++) {
+                    coefficients[i] = buffer.getDouble(terms + 8 * i);
+                    exponents[i] = buffer.getInt(terms + 8 * termCount + 4 * i);
+                }
+                function = new PolynomialFunction(Polynomial.fromSortedTerms(exponents, coefficients), functionString);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt function " + functionString + " in workspace: " + e.getMessage(), e);
+        }
+        function.setEvaluationMode(EvaluationMode.values()[mode]);
+        if ((flags & ANALYSED) != 0) {
+            function.setAnalysis(() -> readAnalysis(roots, rootCount, extremes, extremeCount));
+        }
+        return function;
+    }
+
+    private FunctionAnalysis readAnalysis(int roots, int rootCount, int extremes, int extremeCount) {
+        List<PolynomialRoot> rootList = new ArrayList<>(rootCount);
+        for (int i = 0; i < rootCount; i++) {
+            rootList.add(new PolynomialRoot(buffer.getDouble(roots + 8 * i), buffer.getInt(roots + 8 * rootCount + 4 * i)));
+        }
+        List<ExtremePoint> extremeList = new ArrayList<>(extremeCount);
+        ExtremePoint.Type[] types = ExtremePoint.Type.values();
+        for (int i = 0; i < extremeCount; i++) {
+            extremeList.add(new ExtremePoint(buffer.getDouble(extremes + 8 * i),
+                    buffer.getDouble(extremes + 8 * (extremeCount + i)), types[buffer.get(extremes + 16 * extremeCount + i)]));
+        }
+        return new FunctionAnalysis(List.copyOf(rootList), List.copyOf(extremeList));
+    }
+
+    /**
+     * Passes the stored intersections with minX <= x <= maxX in ascending order of x.
+     */
+    public void forEachIntersection(double minX, double maxX, Consumer<Vector2D> consumer) {
+        // First intersection with x >= minX
+        int low = 0;
+        int high = intersectionCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (intersectionX(middle) < minX) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int i = low; i < intersectionCount && intersectionX(i) <= maxX; i++) {
+            consumer.accept(new Vector2D(intersectionX(i), buffer.getDouble(intersectionsOffset + 8 * (intersectionCount + i))));
+        }
+    }
+
+    private double intersectionX(int i) {
+        return buffer.getDouble(intersectionsOffset + 8 * i);
+    }
+
+    /**
+     * Writes the polynomials of the registry with their analysis and all their intersections. The file is written
+     * next to the target and moved over it when complete, so a workspace that is open from the target keeps its
+     * mapping of the old file.
+     */
+    public static void write(Path path, Vector2D offset, double zoom, FunctionRegistry registry) throws IOException {
+        List<FunctionEntry> entries = registry.getEntries();
+        List<PolynomialFunction> functions = new ArrayList<>(entries.size());
+        for (FunctionEntry entry : entries) {
+            if (!(entry.function instanceof PolynomialFunction function)) {
+                throw new IllegalArgumentException("Only polynomials can be saved: " + entry.getName());
+            }
+            functions.add(function);
+        }
+        List<Vector2D> intersections = collectIntersections(registry, entries);
+
+        Path absolute = path.toAbsolutePath();
+        Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeTo(channel, offset, zoom, functions, intersections);
+            }
+            try {
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Returns the finite intersections of all pairs in ascending order of x. Those between stored functions are
+     * copied from the opened workspace, the others come from the cache of the registry or are computed.
+     */
+    private static List<Vector2D> collectIntersections(FunctionRegistry registry, List<FunctionEntry> entries) {
+        List<Vector2D> result = new ArrayList<>();
+        registry.forEachStoredIntersection(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, result::add);
+        for (int j = Math.max(1, registry.getStoredCount()); j < entries.size(); j++) {
+            for (int i = 0; i < j; i++) {
+                for (Vector2D intersection : registry.getIntersections(entries.get(i), entries.get(j))) {
+                    if (Double.isFinite(intersection.x) && !Double.isNaN(intersection.y)) {
+                        result.add(intersection);
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparingDouble(intersection -> intersection.x));
+        return result;
+    }
+
+    private static void writeTo(FileChannel channel, Vector2D offset, double zoom, List<PolynomialFunction> functions,
+                                List<Vector2D> intersections) throws IOException {
+        // The analysis may still be published while the file is written, so it is taken once for both passes
+        int n = functions.size();
+        Polynomial[] polynomials = new Polynomial[n];
+        boolean[] analysed = new boolean[n];
+        List<List<PolynomialRoot>> roots = new ArrayList<>(n);
+        List<List<ExtremePoint>> extremePoints = new ArrayList<>(n);
+        byte[][] texts = new byte[n][];
+        long[] dataOffsets = new long[n];
+        long position = HEADER_SIZE + (long) INDEX_ENTRY_SIZE * n;
+        for (int i = 0; i < n; i++) {
+            PolynomialFunction function = functions.get(i);
+            polynomials[i] = function.getPolynomial();
+            // Functions whose analysis failed are analysed again when the workspace is opened
+            analysed[i] = function.isAnalysed() && function.getUnavailableReason() == null;
+            roots.add(analysed[i] ? function.getRoots() : List.of());
+            extremePoints.add(analysed[i] ? function.getExtremePoints() : List.of());
+            texts[i] = function.getFunctionString().getBytes(StandardCharsets.UTF_8);
+            dataOffsets[i] = position;
+            position += dataSize(polynomials[i].termCount(), roots.get(i).size(), extremePoints.get(i).size(), texts[i].length);
+        }
+        if (position + 16L * intersections.size() > Integer.MAX_VALUE) {
+            throw new IOException("Workspace files are limited to 2 GB");
+        }
+
+        Output out = new Output(channel);
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(n);
+        out.putInt(0);
+        out.putDouble(offset.x);
+        out.putDouble(offset.y);
+        out.putDouble(zoom);
+        out.putLong(intersections.size());
+        out.putLong(position);
+        out.putLong(0);
+        for (int i = 0; i < n; i++) {
+            PolynomialFunction function = functions.get(i);
+            out.putLong(dataOffsets[i]);
+            out.putInt(polynomials[i].termCount());
+            out.putInt(roots.get(i).size());
+            out.putInt(extremePoints.get(i).size());
+            out.putInt(texts[i].length);
+            out.put((byte) function.getEvaluationMode().ordinal());
+            out.put((byte) ((analysed[i] ? ANALYSED : 0) | (function.getExpression().isFactored() ? FACTORED : 0)));
+            out.align();
+        }
+        for (int i = 0; i < n; i++) {
+            for (double coefficient : polynomials[i].termCoefficients()) {
+                out.putDouble(coefficient);
+            }
+            for (int exponent : polynomials[i].termExponents()) {
+                out.putInt(exponent);
+            }
+            out.align();
+
+            for (PolynomialRoot root : roots.get(i)) {
+                out.putDouble(root.x);
+            }
+            for (PolynomialRoot root : roots.get(i)) {
+                out.putInt(root.multiplicity);
+            }
+            out.align();
+
+            for (ExtremePoint extremePoint : extremePoints.get(i)) {
+                out.putDouble(extremePoint.x);
+            }
+            for (ExtremePoint extremePoint : extremePoints.get(i)) {
+                out.putDouble(extremePoint.y);
+            }
+            for (ExtremePoint extremePoint : extremePoints.get(i)) {
+                out.put((byte) extremePoint.type.ordinal());
+            }
+            out.align();
+
+            for (byte b : texts[i]) {
+                out.put(b);
+            }
+            out.align();
+        }
+        for (Vector2D intersection : intersections) {
+            out.putDouble(intersection.x);
+        }
+        for (Vector2D intersection : intersections) {
+            out.putDouble(intersection.y);
+        }
+        out.flush();
+    }
+
+    private static long dataSize(int termCount, int rootCount, int extremeCount, int textLength) {
+        return align(12L * termCount) + align(12L * rootCount) + align(17L * extremeCount) + align(textLength);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Sequential little-endian writer over a channel that counts the written bytes for the alignment of sections.
+     */
+    private static class Output {
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        long position = 0;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void put(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+            position++;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+            position += 4;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+            position += 8;
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+            position += 8;
+        }
+
+        void align() throws IOException {
+            while (position % 8 != 0) {
+                put((byte) 0);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class EvaluatorCompilerTest {
+
+    @Test
+    void compiledEvaluatorsAgreeWithThePolynomial() {
+        Random random = new Random(2);
+        double[] x = new double[257];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = random.nextDouble() * 4 - 2;
+        }
+        for (int degree : new int[]{0, 1, 2, 3, 7, 16, 63, 200}) {
+            double[] coefficients = new double[degree + 1];
+            for (int i = 0; i <= degree; i++) {
+                coefficients[i] = random.nextDouble() * 2 - 1;
+            }
+            Polynomial polynomial = Polynomial.of(coefficients);
+            PolynomialEvaluator evaluator = EvaluatorCompiler.compile(polynomial);
+            if (degree <= 64) {
+                assertNotSame(polynomial, evaluator, "degree " + degree);
+            }
+
+            double[] expected = new double[x.length];
+            double[] actual = new double[x.length];
+            polynomial.evaluate(x, expected, x.length);
+            evaluator.evaluate(x, actual, x.length);
+            for (int i = 0; i < x.length; i++) {
+                double tolerance = 1e-13 * PolynomialMath.evaluationErrorBound(coefficients, x[i]) / Math.ulp(1.0);
+                assertEquals(polynomial.evaluate(x[i]), evaluator.evaluate(x[i]), tolerance, "degree " + degree);
+                assertEquals(expected[i], actual[i], tolerance, "degree " + degree);
+            }
+        }
+    }
+
+    @Test
+    void batchEvaluationOnlyWritesTheRequestedCount() {
+        PolynomialEvaluator evaluator = EvaluatorCompiler.compile(Polynomial.of(1, 2, 3));
+        double[] y = {-1, -1, -1};
+        evaluator.evaluate(new double[]{0, 1, 2}, y, 2);
+        assertEquals(1, y[0]);
+        assertEquals(6, y[1]);
+        assertEquals(-1, y[2]);
+    }
+}
@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class PolynomialMathTest {
+
+    @Test
+    void compensatedSignIsExactNearAMultipleRoot() {
+        // (x-1)^7 expanded, whose ordinary evaluation is dominated by rounding around x = 1
+        double[] coefficients = {-1, 7, -21, 35, -35, 21, -7, 1};
+        for (double x = 0.99; x <= 1.01; x += 1e-4) {
+            assertEquals(PolynomialMath.exactSign(coefficients, x), PolynomialMath.sign(coefficients, x, EvaluationMode.COMPENSATED),
+                    "x = " + x);
+        }
+    }
+
+    @Test
+    void compensatedSignAgreesWithTheExactSign() {
+        Random random = new Random(3);
+        for (int k = 0; k < 200; k++) {
+            double[] coefficients = new double[1 + random.nextInt(40)];
+            for (int i = 0; i < coefficients.length; i++) {
+                coefficients[i] = random.nextGaussian();
+            }
+            double x = random.nextDouble() * 4 - 2;
+            assertEquals(PolynomialMath.exactSign(coefficients, x), PolynomialMath.sign(coefficients, x, EvaluationMode.COMPENSATED));
+        }
+    }
+
+    @Test
+    void compensatedSignIsExactWhereTheEvaluationOverflows() {
+        Random random = new Random(4);
+        for (int k = 0; k < 50; k++) {
+            double[] coefficients = new double[401 + random.nextInt(600)];
+            for (int i = 0; i < coefficients.length; i++) {
+                coefficients[i] = random.nextGaussian();
+            }
+            // Dyadic points with few bits keep the exact reference cheap
+            double x = (random.nextBoolean() ? 1 : -1) * (8 + random.nextInt(256) / 128.0);
+            assertFalse(Double.isFinite(PolynomialMath.evaluateCompensated(coefficients, x)));
+            assertEquals(PolynomialMath.exactSign(coefficients, x), PolynomialMath.sign(coefficients, x, EvaluationMode.COMPENSATED),
+                    "degree " + (coefficients.length - 1) + " at " + x);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PolynomialParserTest {
+
+    @Test
+    void parsesNumbersAndExponents() {
+        Polynomial polynomial = PolynomialParser.parse("2.5e1x^3 - .5x + 1");
+        assertEquals(3, polynomial.degree());
+        assertEquals(25, polynomial.coefficient(3));
+        assertEquals(-0.5, polynomial.coefficient(1));
+        assertEquals(1, polynomial.coefficient(0));
+    }
+
+    @Test
+    void rejectsDigitsOfOtherScripts() {
+        // Arabic-Indic three, which Character.isDigit accepts
+        for (String input : new String[]{"x^\u0663+1", "\u0663x+1", "2.\u0663x", "1e\u0663x"}) {
+            assertThrows(PolynomialParseException.class, () -> PolynomialParser.parse(input), input);
+        }
+    }
+}
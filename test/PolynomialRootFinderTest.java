@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PolynomialRootFinderTest {
+
+    @Test
+    void findsTheRootsOfTheExpandedWilkinsonPolynomial() {
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            List<PolynomialRoot> roots = PolynomialRootFinder.findRoots(wilkinson(20), -100, 100, mode);
+            assertEquals(20, roots.size(), mode.toString());
+            for (int i = 0; i < 20; i++) {
+                // The expanded coefficients are rounded, which moves the larger roots by up to about 1e-2
+                assertEquals(i + 1, roots.get(i).x, 0.05, mode.toString());
+                assertEquals(1, roots.get(i).multiplicity, mode.toString());
+            }
+        }
+    }
+
+    @Test
+    void findsTheRootsOfTheExpandedSmallWilkinsonPolynomialAccurately() {
+        List<PolynomialRoot> roots = PolynomialRootFinder.findRoots(wilkinson(10), -100, 100, EvaluationMode.COMPENSATED);
+        assertEquals(10, roots.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i + 1, roots.get(i).x, 1e-8);
+        }
+    }
+
+    @Test
+    void findsTheRealRootsOfXToTheNMinusOne() {
+        for (int n : new int[]{1, 2, 7, 8, 101, 1000}) {
+            double[] coefficients = new double[n + 1];
+            coefficients[0] = -1;
+            coefficients[n] = 1;
+            List<PolynomialRoot> roots = PolynomialRootFinder.findRoots(coefficients, -2, 2);
+            if (n % 2 == 0) {
+                assertEquals(2, roots.size(), "n = " + n);
+                assertEquals(-1, roots.get(0).x, 1e-12, "n = " + n);
+                assertEquals(1, roots.get(1).x, 1e-12, "n = " + n);
+            } else {
+                assertEquals(1, roots.size(), "n = " + n);
+                assertEquals(1, roots.get(0).x, 1e-12, "n = " + n);
+            }
+        }
+    }
+
+    @Test
+    void findsTheRootsOfSparseXToTheNMinusOneAboveTheDenseDegreeLimit() {
+        PolynomialFunction function = new PolynomialFunction("x^6000-1", -2, 2);
+        assertNull(function.getUnavailableReason());
+        List<PolynomialRoot> roots = function.getRoots();
+        assertEquals(2, roots.size());
+        assertEquals(-1, roots.get(0).x, 1e-12);
+        assertEquals(1, roots.get(1).x, 1e-12);
+    }
+
+    @Test
+    void compensatedSearchCountsRootsCorrectlyWhereTheSturmSequenceOverflows() {
+        for (int n : new int[]{500, 1000}) {
+            Random random = new Random(n);
+            double[] coefficients = new double[n + 1];
+            for (int i = 0; i <= n; i++) {
+                coefficients[i] = random.nextGaussian();
+            }
+            List<PolynomialRoot> standard = PolynomialRootFinder.findRoots(coefficients, -10, 10, EvaluationMode.STANDARD);
+            List<PolynomialRoot> compensated = PolynomialRootFinder.findRoots(coefficients, -10, 10, EvaluationMode.COMPENSATED);
+            assertEquals(standard.size(), compensated.size(), "degree " + n);
+            for (int i = 0; i < standard.size(); i++) {
+                assertEquals(standard.get(i).x, compensated.get(i).x, 1e-9, "degree " + n);
+            }
+        }
+
+        double[] coefficients = new double[1101];
+        coefficients[0] = -1;
+        coefficients[1100] = 1;
+        List<PolynomialRoot> roots = PolynomialRootFinder.findRoots(coefficients, -2, 2, EvaluationMode.COMPENSATED);
+        assertEquals(2, roots.size());
+        assertEquals(-1, roots.get(0).x, 1e-12);
+        assertEquals(1, roots.get(1).x, 1e-12);
+    }
+
+    @Test
+    void findsTheMultipleRootOfAFactoredPower() {
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            PolynomialFunction function = new PolynomialFunction("(x+1)^500", -10, 10, mode);
+            assertNull(function.getUnavailableReason(), mode.toString());
+            List<PolynomialRoot> roots = function.getRoots();
+            assertEquals(1, roots.size(), mode.toString());
+            assertEquals(-1, roots.get(0).x, 1e-12, mode.toString());
+            assertEquals(500, roots.get(0).multiplicity, mode.toString());
+        }
+    }
+
+    @Test
+    void separatesCloseRoots() {
+        List<PolynomialRoot> roots = PolynomialRootFinder.findRoots(new double[]{-1e-10, 0, 1}, -1, 1);
+        assertEquals(2, roots.size());
+        assertEquals(-1e-5, roots.get(0).x, 1e-15);
+        assertEquals(1e-5, roots.get(1).x, 1e-15);
+    }
+
+    private static double[] wilkinson(int n) {
+        Polynomial product = Polynomial.ONE;
+        for (int i = 1; i <= n; i++) {
+            product = product.multiply(Polynomial.of(-i, 1));
+        }
+        return product.toDenseArray();
+    }
+}
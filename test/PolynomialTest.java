@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PolynomialTest {
+
+    @Test
+    void multiplicationAgreesWithTheSchoolbookProductAcrossTheAlgorithmThresholds() {
+        Random random = new Random(1);
+        int[] lengths = {1, 2, 63, 64, 65, 200, 511, 512, 513, 1500};
+        for (int first : lengths) {
+            for (int second : lengths) {
+                double[] a = randomCoefficients(random, first);
+                double[] b = randomCoefficients(random, second);
+                double[] expected = schoolbook(a, b);
+                double[] actual = Polynomial.multiply(a, b);
+                assertEquals(expected.length, actual.length, first + " x " + second);
+                // The FFT error grows with the size and the magnitude of the operands, not of each coefficient
+                double tolerance = 1e-12 * Math.max(first, second) * magnitude(a) * magnitude(b);
+                for (int i = 0; i < expected.length; i++) {
+                    assertEquals(expected[i], actual[i], tolerance, first + " x " + second + " at " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void multipliesSparseAndDensePolynomials() {
+        Polynomial sparse = PolynomialParser.parse("x^1000+1");
+        Polynomial dense = Polynomial.of(1, 2, 3);
+        Polynomial product = sparse.multiply(dense);
+        assertEquals(1002, product.degree());
+        assertEquals(6, product.termCount());
+        assertEquals(3, product.coefficient(1002));
+        assertEquals(2, product.coefficient(1));
+        assertEquals(0, product.coefficient(500));
+        assertEquals(sparse.evaluate(0.9) * dense.evaluate(0.9), product.evaluate(0.9), 1e-12);
+    }
+
+    private static double[] randomCoefficients(Random random, int length) {
+        double[] coefficients = new double[length];
+        for (int i = 0; i < length; i++) {
+            coefficients[i] = random.nextDouble() * 2 - 1;
+        }
+        // A zero leading coefficient would shorten the product
+        coefficients[length - 1] = 1;
+        return coefficients;
+    }
+
+    private static double[] schoolbook(double[] a, double[] b) {
+        double[] result = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b.length; j++) {
+                result[i + j] += a[i] * b[j];
+            }
+        }
+        return result;
+    }
+
+    private static double magnitude(double[] coefficients) {
+        double max = 0;
+        for (double coefficient : coefficients) {
+            max = Math.max(max, Math.abs(coefficient));
+        }
+        return max;
+    }
+}
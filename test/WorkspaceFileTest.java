@@ -0,0 +1,74 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkspaceFileTest {
+
+    @Test
+    void roundTripsFunctionsAnalysisAndIntersections(@TempDir Path directory) throws IOException {
+        FunctionRegistry registry = new FunctionRegistry();
+        PolynomialFunction parabola = new PolynomialFunction("x^2-2", -10, 10);
+        PolynomialFunction sparse = new PolynomialFunction("x^1000-1", -10, 10, EvaluationMode.COMPENSATED);
+        FunctionEntry first = registry.add(parabola);
+        FunctionEntry second = registry.add(sparse);
+        List<Vector2D> intersections = registry.getIntersections(first, second);
+
+        Path path = directory.resolve("workspace.fgw");
+        WorkspaceFile.write(path, new Vector2D(12.5, -3), 40, registry);
+        WorkspaceFile workspace = WorkspaceFile.open(path);
+
+        assertEquals(12.5, workspace.offset.x);
+        assertEquals(-3, workspace.offset.y);
+        assertEquals(40, workspace.zoom);
+        assertEquals(2, workspace.functions.size());
+        assertSameFunction(parabola, workspace.functions.get(0));
+        assertSameFunction(sparse, workspace.functions.get(1));
+
+        List<Vector2D> stored = new ArrayList<>();
+        workspace.forEachIntersection(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, stored::add);
+        assertEquals(intersections.size(), stored.size());
+        for (int i = 0; i < stored.size(); i++) {
+            assertEquals(intersections.get(i).x, stored.get(i).x);
+            assertEquals(intersections.get(i).y, stored.get(i).y);
+        }
+    }
+
+    @Test
+    void keepsTheStructureOfFactoredExpressions(@TempDir Path directory) throws IOException {
+        FunctionRegistry registry = new FunctionRegistry();
+        PolynomialFunction composed = new PolynomialFunction("(x^2-2)\u2218(x-3)", -10, 10);
+        registry.add(composed);
+
+        Path path = directory.resolve("workspace.fgw");
+        WorkspaceFile.write(path, new Vector2D(0, 0), 1, registry);
+        PolynomialFunction opened = WorkspaceFile.open(path).functions.get(0);
+
+        assertTrue(opened.getExpression().isFactored());
+        assertSameFunction(composed, opened);
+    }
+
+    private static void assertSameFunction(PolynomialFunction expected, PolynomialFunction actual) {
+        assertEquals(expected.getFunctionString(), actual.getFunctionString());
+        assertEquals(expected.getEvaluationMode(), actual.getEvaluationMode());
+        assertArrayEquals(expected.getCoefficients(), actual.getCoefficients());
+        assertEquals(expected.getRoots().size(), actual.getRoots().size());
+        for (int i = 0; i < expected.getRoots().size(); i++) {
+            assertEquals(expected.getRoots().get(i).x, actual.getRoots().get(i).x);
+            assertEquals(expected.getRoots().get(i).multiplicity, actual.getRoots().get(i).multiplicity);
+        }
+        assertEquals(expected.getExtremePoints().size(), actual.getExtremePoints().size());
+        for (int i = 0; i < expected.getExtremePoints().size(); i++) {
+            assertEquals(expected.getExtremePoints().get(i).x, actual.getExtremePoints().get(i).x);
+            assertEquals(expected.getExtremePoints().get(i).y, actual.getExtremePoints().get(i).y);
+            assertEquals(expected.getExtremePoints().get(i).type, actual.getExtremePoints().get(i).type);
+        }
+    }
+}